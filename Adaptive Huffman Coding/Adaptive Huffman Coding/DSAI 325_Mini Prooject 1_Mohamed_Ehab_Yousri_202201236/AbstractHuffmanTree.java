@@ -0,0 +1,414 @@
+import java.io.*;
+
+// The adaptive Huffman algorithm (node numbering, swaps and updates), written once
+// against int node handles. Subclasses only decide where the nodes are stored:
+// HuffmanTree uses Node objects and HashMaps, OffHeapHuffmanTree a direct buffer.
+public abstract class AbstractHuffmanTree implements AdaptiveTree {
+    // Handle of a missing node: no parent/child, or a symbol not seen yet.
+    protected static final int NONE = -1;
+    // Node number begins at 512 and counts down.
+    protected static final int TOP_NUMBER = 512;
+    // A new symbol is sent as an 8-bit literal after the NYT code.
+    public static final int MAX_SYMBOL = 0xFF;
+
+    // Node storage. newNode also registers the node under its number.
+    protected abstract int newNode(char symbol, int count, int number, boolean isNYT);
+
+    // Removes every node, so the tree can be rebuilt by reset() or loadState().
+    protected abstract void clearNodes();
+
+    protected abstract int count(int node);
+
+    protected abstract void setCount(int node, int count);
+
+    protected abstract int number(int node);
+
+    protected abstract void setNumber(int node, int number);
+
+    protected abstract int left(int node);
+
+    protected abstract void setLeft(int node, int child);
+
+    protected abstract int right(int node);
+
+    protected abstract void setRight(int node, int child);
+
+    protected abstract int parent(int node);
+
+    protected abstract void setParent(int node, int parent);
+
+    protected abstract char symbol(int node);
+
+    protected abstract boolean isNYT(int node);
+
+    // Tree-wide state: root, NYT, last updated node (for the GUI) and next number.
+    protected abstract int rootNode();
+
+    protected abstract void setRootNode(int node);
+
+    protected abstract int nytNode();
+
+    protected abstract void setNytNode(int node);
+
+    protected abstract int lastUpdated();
+
+    protected abstract void setLastUpdated(int node);
+
+    protected abstract int nextNumber();
+
+    protected abstract void setNextNumber(int number);
+
+    // numberMap and symbolMap.
+    protected abstract int nodeWithNumber(int number);
+
+    protected abstract void putNumber(int number, int node);
+
+    protected abstract int symbolNode(char symbol);
+
+    protected abstract void putSymbol(char symbol, int node);
+
+    // Starts with a single NYT node (root = NYT).
+    protected void reset() {
+        clearNodes();
+        setNextNumber(TOP_NUMBER);
+        int nyt = allocate('\0', 0, true);
+        setRootNode(nyt);
+        setNytNode(nyt);
+        setLastUpdated(nyt);
+    }
+
+    private int allocate(char symbol, int count, boolean isNYT) {
+        int number = nextNumber();
+        setNextNumber(number - 1);
+        return newNode(symbol, count, number, isNYT);
+    }
+
+    protected boolean isLeaf(int node) {
+        return left(node) == NONE && right(node) == NONE;
+    }
+
+    // The one 8-bit check. The tree runs it before a new symbol is sent or inserted;
+    // coders that index 256-entry tables before the tree sees the input call it too.
+    public static void checkSymbol(char symbol) {
+        if (symbol > MAX_SYMBOL)
+            throw new IllegalArgumentException("Only 8-bit symbols are supported: " + (int) symbol);
+    }
+
+    public String encode(char symbol) {
+        StringBuilder encoded = new StringBuilder();
+        // Checks whether the symbol has been encountered before
+        int node = symbolNode(symbol);
+        if (node == NONE) {
+            checkSymbol(symbol);
+            // The encoder first emits the code for the NYT node
+            encoded.append(getCode(nytNode()));
+            // transmit its ASCII binary value (8 bits).
+            encoded.append(toBinary(symbol));
+            // Inserts the new symbol into the tree
+            insert(symbol);
+            // GUI visualization: highlights the most recently added/updated node.
+            setLastUpdated(symbolNode(symbol));
+
+            // if symbol already exists in the tree.
+        } else {
+            // Gets the binary path
+            encoded.append(getCode(node));
+            // Rebalances the tree:
+            // Increments frequency of the symbol.
+            // Swaps it with higher-numbered nodes if needed
+            update(node);
+            setLastUpdated(node);
+        }
+
+        return encoded.toString();
+    }
+
+    // Same as encode(symbol), but the code goes straight into a BitWriter
+    // instead of being built as a string.
+    public void encode(char symbol, BitWriter out) {
+        int node = symbolNode(symbol);
+        if (node == NONE) {
+            checkSymbol(symbol);
+            writeCode(nytNode(), out);
+            out.writeBits(symbol, 8);
+            insert(symbol);
+            setLastUpdated(symbolNode(symbol));
+        } else {
+            writeCode(node, out);
+            update(node);
+            setLastUpdated(node);
+        }
+    }
+
+    // Collects the path bits while walking up (the first edge lands in the lowest
+    // bit, so the value reads root-first) and writes them in one call.
+    private void writeCode(int node, BitWriter out) {
+        long path = 0;
+        int depth = 0;
+        for (int current = node; parent(current) != NONE; current = parent(current)) {
+            if (depth == 64) {
+                // Deeper than one word: rare enough to take the string route.
+                out.writeCode(getCode(node));
+                return;
+            }
+            if (right(parent(current)) == current)
+                path |= 1L << depth;
+            depth++;
+        }
+        out.writeBits(path, depth);
+    }
+
+    // Same tree update as encode(), but only returns how many bits the code would
+    // take, without building any strings. Used by CompressionAnalyzer.
+    public int encodeLength(char symbol) {
+        int node = symbolNode(symbol);
+        int length;
+        if (node == NONE) {
+            checkSymbol(symbol);
+            length = getDepth(nytNode()) + 8;
+            insert(symbol);
+            setLastUpdated(symbolNode(symbol));
+        } else {
+            length = getDepth(node);
+            update(node);
+            setLastUpdated(node);
+        }
+        return length;
+    }
+
+    public int decode(String bitstream, int i, StringBuilder out) {
+        // Start traversal from the root
+        int current = rootNode();
+        // While current is not a leaf node
+        while (!isLeaf(current)) {
+            if (i >= bitstream.length())
+                // The code is cut off
+                return -1;
+            // Traverse the tree using bits:'0' → go left,'1' → go right
+            current = (bitstream.charAt(i++) == '0') ? left(current) : right(current);
+        }
+
+        // Case 1: If Node is NYT
+        if (isNYT(current)) {
+            // Read the next 8 bits to get the ASCII of the new character.
+            if (i + 8 > bitstream.length())
+                return -1;
+            // Convert from binary string to a character.
+            char symbol = (char) Integer.parseInt(bitstream.substring(i, i + 8), 2);
+            // Insert that character into the tree.
+            insert(symbol);
+            out.append(symbol);
+            return i + 8;
+        }
+        // Case 2: If Node is a Regular Symbol
+        // We extract the character and update the tree to reflect its new frequency and
+        // rebalancing.
+        out.append(symbol(current));
+        update(current);
+        return i;
+    }
+
+    public boolean decode(BitReader in, StringBuilder out) {
+        int current = rootNode();
+        while (!isLeaf(current)) {
+            if (!in.hasMore())
+                return false;
+            current = in.readBit() ? right(current) : left(current);
+        }
+        if (isNYT(current)) {
+            if (in.remaining() < 8)
+                return false;
+            char symbol = (char) in.readBits(8);
+            insert(symbol);
+            out.append(symbol);
+            return true;
+        }
+        out.append(symbol(current));
+        update(current);
+        return true;
+    }
+
+    // Creates a new NYT node, a leaf for the symbol, and a new internal parent
+    // node.
+    public void insert(char symbol) {
+        checkSymbol(symbol);
+        int oldNYT = nytNode();
+        int newNYT = allocate('\0', 0, true);
+        int leaf = allocate(symbol, 1, false);
+        int internal = allocate('\0', 1, false);
+
+        // Links the nodes
+        setLeft(internal, newNYT);
+        setRight(internal, leaf);
+        setParent(newNYT, internal);
+        setParent(leaf, internal);
+
+        // Insert into Main Tree
+        // the first time a symbol is inserted
+        // Checks whether the current NYT node is the root of the tree
+        int parent = parent(oldNYT);
+        if (parent == NONE) {
+            // The internal node becomes the new root of the tree.
+            setRootNode(internal);
+
+            // Runs when the NYT node is not the root
+        } else {
+            // Finds which side (left/right) the old NYT node was on in its parent.
+            if (left(parent) == oldNYT)
+                // Replaces the NYT node with the new internal node
+                setLeft(parent, internal);
+            else
+                setRight(parent, internal);
+            // assign the parent pointer to the new internal node.
+            setParent(internal, parent);
+        }
+
+        setNytNode(newNYT);
+        putSymbol(symbol, leaf);
+
+        update(internal);
+    }
+
+    protected void update(int node) {
+        while (node != NONE) {
+            // Finds the node with the highest number:
+            // Has the same count as the current node.
+            // Comes after it numerically (more recent in the tree structure).
+            int highest = getHighestNodeWithSameCount(node);
+            if (highest != NONE && highest != node && highest != parent(node)) {
+                swap(node, highest);
+            }
+            // After swapping (if needed), increment this node’s frequency count by 1.
+            setCount(node, count(node) + 1);
+            // Move up the tree.
+            node = parent(node);
+        }
+    }
+
+    // Finds the deepest node (higher number) with same count — used in swaps.
+    private int getHighestNodeWithSameCount(int node) {
+        int count = count(node);
+        for (int i = TOP_NUMBER; i > number(node); i--) {
+            int candidate = nodeWithNumber(i);
+            if (candidate != NONE && count(candidate) == count) {
+                return candidate;
+            }
+        }
+        return NONE;
+    }
+
+    private void swap(int a, int b) {
+        // store the original parents of a and b for reconnection later
+        int aParent = parent(a);
+        int bParent = parent(b);
+        // These nodes must not be parent-child
+        if (a == b || a == bParent || b == aParent)
+            return;
+        // Rewire a Parent to point to b instead of a.
+        if (left(aParent) == a)
+            setLeft(aParent, b);
+        else
+            setRight(aParent, b);
+        // Rewire bParent to point to a instead of b.
+        if (left(bParent) == b)
+            setLeft(bParent, a);
+        else
+            setRight(bParent, a);
+        // Update the parent pointers inside the nodes
+        setParent(a, bParent);
+        setParent(b, aParent);
+        // Swap their node numbers.
+        int temp = number(a);
+        setNumber(a, number(b));
+        setNumber(b, temp);
+        // Update the numberMap
+        putNumber(number(a), a);
+        putNumber(number(b), b);
+    }
+
+    // Length of the node's code: number of edges up to the root.
+    protected int getDepth(int node) {
+        int depth = 0;
+        for (int current = node; parent(current) != NONE; current = parent(current))
+            depth++;
+        return depth;
+    }
+
+    // Builds the code by walking up to the root and reversing.
+    protected String getCode(int node) {
+        StringBuilder code = new StringBuilder();
+        int current = node;
+        int parent;
+        // Traverse Until Root
+        while ((parent = parent(current)) != NONE) {
+            code.append(left(parent) == current ? '0' : '1');
+            current = parent;
+        }
+        return code.reverse().toString();
+    }
+
+    // Converts a char to an 8-bit binary string (used when emitting new symbols).
+    public String toBinary(char c) {
+        return String.format("%8s", Integer.toBinaryString(c)).replace(' ', '0');
+    }
+
+    // Writes the complete adaptive state (shape, counts, numbers) so another tree
+    // can continue exactly where this one stopped. The format does not depend on
+    // the storage, so a HuffmanTree state can be loaded into an OffHeapHuffmanTree.
+    // Layout: next free number, number of the last updated node, then every node in
+    // preorder as flags (1 = leaf, 2 = NYT), symbol for symbol leaves, count, number.
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeInt(nextNumber());
+        out.writeInt(number(lastUpdated()));
+        writeNode(rootNode(), out);
+    }
+
+    private void writeNode(int node, DataOutputStream out) throws IOException {
+        boolean leaf = isLeaf(node);
+        out.writeByte((leaf ? 1 : 0) | (isNYT(node) ? 2 : 0));
+        if (leaf && !isNYT(node))
+            out.writeChar(symbol(node));
+        out.writeInt(count(node));
+        out.writeShort(number(node));
+        if (!leaf) {
+            writeNode(left(node), out);
+            writeNode(right(node), out);
+        }
+    }
+
+    // Replaces this tree with a state written by writeState.
+    protected void loadState(DataInputStream in) throws IOException {
+        clearNodes();
+        setNytNode(NONE);
+        setNextNumber(in.readInt());
+        int lastUpdatedNumber = in.readInt();
+        setRootNode(readNode(in));
+        if (nytNode() == NONE)
+            throw new IOException("Tree state has no NYT node");
+        int last = nodeWithNumber(lastUpdatedNumber);
+        setLastUpdated(last != NONE ? last : nytNode());
+    }
+
+    private int readNode(DataInputStream in) throws IOException {
+        int flags = in.readByte();
+        boolean leaf = (flags & 1) != 0;
+        boolean isNYT = (flags & 2) != 0;
+        char symbol = (leaf && !isNYT) ? in.readChar() : '\0';
+        int count = in.readInt();
+        int number = in.readShort();
+        int node = newNode(symbol, count, number, isNYT);
+        if (isNYT)
+            setNytNode(node);
+        else if (leaf)
+            putSymbol(symbol, node);
+        else {
+            int left = readNode(in);
+            int right = readNode(in);
+            setLeft(node, left);
+            setRight(node, right);
+            setParent(left, node);
+            setParent(right, node);
+        }
+        return node;
+    }
+}
\ No newline at end of file
@@ -8,7 +8,9 @@ public class AdaptiveHuffman {
         SwingUtilities.invokeLater(() -> {
             Scanner scanner = new Scanner(System.in);
             Encoder encoder = new Encoder();
-            Decoder decoder = new Decoder();
+            // The decoder's tree is kept here so the visualizer can show it.
+            HuffmanTree decoderTree = new HuffmanTree();
+            Decoder decoder = new Decoder(decoderTree);
             HuffmanTree tree = new HuffmanTree();
 
             // Visualization
@@ -54,7 +56,7 @@ public class AdaptiveHuffman {
             // Decoding Phase
             System.out.println("\nDecoding process begins...\n");
             String decompressed = decoder.decode(compressed);
-            visualizer.updateTree(decoder.getTree());
+            visualizer.updateTree(decoderTree);
 
             System.out.println("\nDecoded Original Message:");
             System.out.println(decompressed);
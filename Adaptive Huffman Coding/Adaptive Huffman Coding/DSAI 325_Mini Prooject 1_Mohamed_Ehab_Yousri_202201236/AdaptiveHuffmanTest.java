@@ -1,10 +1,46 @@
- class AdaptiveHuffmanTest {
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class AdaptiveHuffmanTest {
     public static void main(String[] args) {
         StringBuilder result = new StringBuilder();
         result.append("===== Test Cases =====\n\n");
         result.append(test(1, "ABABAB"));
         result.append(test(2, "HELLO"));
         result.append(test(3, "AAAAAAA"));
+        result.append(testHybrid(4, "ABABAB", HybridEncoder.DEFAULT_BLOCK_SIZE));
+        result.append(testHybrid(5, repeat("the quick brown fox jumps over the lazy dog. ", 200), 2048));
+        result.append(testRunLength(6, "AAAAAAA"));
+        result.append(testRunLength(7, repeat("A", 1000) + repeat("B", 300) + "ABAB" + repeat("\0", 5000)));
+        result.append(testPipeline(8, "banana", 64));
+        result.append(testPipeline(9, repeat("she sells sea shells by the sea shore. ", 300), 4096));
+        result.append(testInterleaved(10, "HELLO", 4));
+        result.append(testInterleaved(11, repeat("ABRACADABRA", 50), 4));
+        result.append(testTokens(12, repeat("to be or not to be, that is the question. ", 40), 0));
+        result.append(testTokens(13, repeat("GATTACA", 60), 7));
+        result.append(testOffHeap(14, "HELLO", OffHeapHuffmanTree.MAX_SYMBOLS));
+        result.append(testOffHeap(15, repeat("off-heap trees keep the heap flat! ", 30), OffHeapHuffmanTree.MAX_SYMBOLS));
+        result.append(testCheckpoint(16, "ABRACADABRA ALAKAZAM"));
+        result.append(testServer(17, new String[] { "HELLO WORLD", "ABABABABAB", "MISSISSIPPI" }));
+        result.append(testSyncPoints(18, repeat("random access into compressed data. ", 40), 64, false));
+        result.append(testSyncPoints(19, repeat("random access into compressed data. ", 40), 64, true));
+        result.append(testAnalyzer(20, repeat("to be or not to be, that is the question. ", 40)));
+        result.append(testPacked(21, "HELLO"));
+        result.append(testPacked(22, repeat("packed bits, one word at a time. ", 50)));
+        result.append(testSharedStream(23, 4,
+                new String[] { repeat("HELLO WORLD ", 40), repeat("ABRACADABRA ", 40), repeat("MISSISSIPPI ", 40) }));
+        result.append(testHybridDrift(24, 32768));
+        result.append(testOffHeap(25, repeat("7-bit text fits a smaller slab. ", 30), 128));
+        result.append(testServerRestart(26, new String[] { "HELLO WORLD", "MISSISSIPPI" }));
+        result.append(testWideSymbol(27, "A\u0141B"));
         result.append("\n======================");
         // Print all results at once
         System.out.println(result.toString());
@@ -27,4 +63,485 @@
         System.out.println("****************************************************************************************************************************\n");
         return testResult.toString();
     }
+
+    // Same round trip through the block encoder that switches between the adaptive
+    // and the static codec. Long inputs only report sizes instead of the bit stream.
+    public static String testHybrid(int testCaseNumber, String input, int blockSize) {
+        HybridEncoder encoder = new HybridEncoder(blockSize);
+        HybridDecoder decoder = new HybridDecoder();
+        String compressed = encoder.encode(input);
+        String decompressed = decoder.decode(compressed);
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": hybrid, " + input.length() + " symbols\n");
+        testResult.append("Encoded:   " + compressed.length() + " bits (" + encoder.getAdaptiveBlocks()
+                + " adaptive / " + encoder.getStaticBlocks() + " static blocks)\n");
+        testResult.append("Matched:   " + input.equals(decompressed) + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // One block whose first half only uses a-d and second half e-h. The static code
+    // (3 bits for all eight) beats the adaptive tree, which keeps short codes for
+    // a-d long after they stop appearing, so the block must go static.
+    public static String testHybridDrift(int testCaseNumber, int half) {
+        Random random = new Random(26);
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < 2 * half; k++)
+            sb.append((char) ((k < half ? 'a' : 'e') + random.nextInt(4)));
+        String input = sb.toString();
+        HybridEncoder encoder = new HybridEncoder(input.length());
+        String compressed = encoder.encode(input);
+        String decompressed = new HybridDecoder().decode(compressed);
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": hybrid with drift, " + input.length() + " symbols\n");
+        testResult.append("Encoded:   " + compressed.length() + " bits (plain adaptive: "
+                + new Encoder().encode(input).length() + " bits)\n");
+        testResult.append("Static:    " + (encoder.getStaticBlocks() == 1) + "\n");
+        testResult.append("Matched:   " + input.equals(decompressed) + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // Round trip through the run-length stage, with the number of tree updates it saved.
+    public static String testRunLength(int testCaseNumber, String input) {
+        RunLengthEncoder encoder = new RunLengthEncoder();
+        RunLengthDecoder decoder = new RunLengthDecoder();
+        String compressed = encoder.encode(input);
+        String decompressed = decoder.decode(compressed);
+        String plain = new Encoder().encode(input);
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": run-length, " + input.length() + " symbols\n");
+        testResult.append("Encoded:   " + compressed.length() + " bits (plain adaptive: " + plain.length() + " bits)\n");
+        testResult.append("Matched:   " + input.equals(decompressed) + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // Round trip through BWT -> MTF -> adaptive Huffman, compared with the plain coder.
+    public static String testPipeline(int testCaseNumber, String input, int blockSize) {
+        TransformPipeline pipeline = TransformPipeline.bwtMtf(blockSize);
+        String compressed = pipeline.encode(input);
+        String decompressed = pipeline.decode(compressed);
+        String plain = new Encoder().encode(input);
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": BWT+MTF pipeline, " + input.length() + " symbols\n");
+        testResult.append("Encoded:   " + compressed.length() + " bits (plain adaptive: " + plain.length() + " bits)\n");
+        testResult.append("Matched:   " + input.equals(decompressed) + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // Round trip with the symbols spread over several independent trees.
+    public static String testInterleaved(int testCaseNumber, String input, int streams) {
+        InterleavedEncoder encoder = new InterleavedEncoder(streams);
+        InterleavedDecoder decoder = new InterleavedDecoder();
+        String compressed = encoder.encode(input);
+        String decompressed = decoder.decode(compressed);
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": " + streams + " interleaved streams, " + input.length() + " symbols\n");
+        testResult.append("Encoded:   " + compressed.length() + " bits\n");
+        testResult.append("Matched:   " + input.equals(decompressed) + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // Round trip with whole words (groupSize 0) or fixed char groups as symbols.
+    public static String testTokens(int testCaseNumber, String input, int groupSize) {
+        TokenEncoder encoder = new TokenEncoder(groupSize);
+        TokenDecoder decoder = new TokenDecoder();
+        String compressed = encoder.encode(input);
+        String decompressed = decoder.decode(compressed);
+        String plain = new Encoder().encode(input);
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": " + (groupSize == 0 ? "word" : groupSize + "-char group")
+                + " tokens, " + input.length() + " symbols\n");
+        testResult.append("Encoded:   " + compressed.length() + " bits (plain adaptive: " + plain.length() + " bits)\n");
+        testResult.append("Matched:   " + input.equals(decompressed) + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // The off-heap tree must produce exactly the same bits as HuffmanTree, also after
+    // being written to disk halfway through and read back. Every tree here shares a
+    // one-slab pool, so each close() must hand the slab back for the next tree.
+    // With a smaller alphabet the first symbol past it must be rejected.
+    public static String testOffHeap(int testCaseNumber, String input, int maxSymbols) {
+        SlabPool pool = new SlabPool(OffHeapHuffmanTree.storageBytes(maxSymbols), 1);
+        StringBuilder bits = new StringBuilder();
+        int half = input.length() / 2;
+        boolean restored;
+        try {
+            Path image = Files.createTempFile("offheap", ".tree");
+            try (OffHeapHuffmanTree tree = new OffHeapHuffmanTree(pool, maxSymbols)) {
+                for (int k = 0; k < half; k++)
+                    bits.append(tree.encode(input.charAt(k)));
+                tree.writeTo(image);
+            }
+            try (OffHeapHuffmanTree tree = OffHeapHuffmanTree.readFrom(image, pool)) {
+                for (int k = half; k < input.length(); k++)
+                    bits.append(tree.encode(input.charAt(k)));
+            }
+            Files.delete(image);
+            restored = true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            restored = false;
+        }
+        String compressed = bits.toString();
+        String decompressed;
+        try (OffHeapHuffmanTree tree = new OffHeapHuffmanTree(pool, maxSymbols)) {
+            decompressed = new Decoder(tree).decode(compressed);
+        }
+        boolean rejected = maxSymbols == OffHeapHuffmanTree.MAX_SYMBOLS;
+        try (OffHeapHuffmanTree tree = new OffHeapHuffmanTree(pool, maxSymbols)) {
+            if (!rejected)
+                tree.encode((char) maxSymbols);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        boolean reused = pool.getAllocatedSlabs() == 1 && pool.getFreeSlabs() == 1;
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": off-heap tree, " + input.length() + " symbols, "
+                + maxSymbols + "-symbol alphabet (" + pool.getSlabBytes() + " byte slab)\n");
+        testResult.append("Same bits: " + (restored && compressed.equals(new Encoder().encode(input))) + "\n");
+        testResult.append("Out of alphabet rejected: " + rejected + "\n");
+        testResult.append("Slab reused: " + reused + "\n");
+        testResult.append("Matched:   " + input.equals(decompressed) + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // Encoder and decoder are both checkpointed halfway (the decoder in the middle of a
+    // code) and resumed from the files; the result must match an uninterrupted run.
+    public static String testCheckpoint(int testCaseNumber, String input) {
+        String compressed = "";
+        String decompressed = "";
+        try {
+            Path state = Files.createTempFile("codec", ".state");
+            Encoder encoder = new Encoder();
+            String first = encoder.encode(input.substring(0, input.length() / 2));
+            encoder.checkpoint(state);
+            String second = Encoder.resume(state).encode(input.substring(input.length() / 2));
+            compressed = first + second;
+
+            int cut = compressed.length() / 2 + 1;
+            Decoder decoder = new Decoder();
+            String head = decoder.decode(compressed.substring(0, cut));
+            decoder.checkpoint(state);
+            String tail = Decoder.resume(state).decode(compressed.substring(cut));
+            decompressed = head + tail;
+            Files.delete(state);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": checkpoint and resume, " + input.length() + " symbols\n");
+        testResult.append("Same bits: " + compressed.equals(new Encoder().encode(input)) + "\n");
+        testResult.append("Matched:   " + input.equals(decompressed) + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // Several streams through one connection to a server that may only keep one of
+    // them in memory, so the others are spilled to disk and resumed between chunks.
+    public static String testServer(int testCaseNumber, String[] inputs) {
+        boolean sameBits = true;
+        boolean matched = true;
+        try {
+            Path spillDir = Files.createTempDirectory("streams");
+            try (CompressionServer server = new CompressionServer(0, spillDir, 1, 4, 60_000);
+                    CompressionClient client = new CompressionClient(server.getPort())) {
+                String[] bits = new String[inputs.length];
+                String[] decoded = new String[inputs.length];
+                for (int s = 0; s < inputs.length; s++) {
+                    bits[s] = "";
+                    decoded[s] = "";
+                }
+                // Two chunks per stream, interleaved between streams.
+                for (int half = 0; half < 2; half++) {
+                    for (int s = 0; s < inputs.length; s++) {
+                        int mid = inputs[s].length() / 2;
+                        String chunk = half == 0 ? inputs[s].substring(0, mid) : inputs[s].substring(mid);
+                        String chunkBits = client.encode("enc" + s, chunk);
+                        bits[s] += chunkBits;
+                        decoded[s] += client.decode("dec" + s, chunkBits);
+                    }
+                }
+                for (int s = 0; s < inputs.length; s++) {
+                    sameBits &= bits[s].equals(new Encoder().encode(inputs[s]));
+                    matched &= decoded[s].equals(inputs[s]);
+                    client.closeStream("enc" + s);
+                    client.closeStream("dec" + s);
+                }
+            }
+            Files.delete(spillDir);
+        } catch (IOException e) {
+            e.printStackTrace();
+            sameBits = false;
+            matched = false;
+        }
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": compression server, " + inputs.length + " streams\n");
+        testResult.append("Same bits: " + sameBits + "\n");
+        testResult.append("Matched:   " + matched + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // A char above 255 cannot be sent as an 8-bit literal. Every way into the tree
+    // (string and packed encoding, length-only encoding, the off-heap tree) must
+    // reject it instead of silently sending its low 8 bits.
+    public static String testWideSymbol(int testCaseNumber, String input) {
+        List<Runnable> paths = new ArrayList<>();
+        paths.add(() -> new Encoder().encode(input));
+        paths.add(() -> new Encoder().encode(input, new BitWriter()));
+        paths.add(() -> {
+            HuffmanTree tree = new HuffmanTree();
+            for (int k = 0; k < input.length(); k++)
+                tree.encodeLength(input.charAt(k));
+        });
+        paths.add(() -> {
+            try (OffHeapHuffmanTree tree = new OffHeapHuffmanTree()) {
+                new Encoder(tree).encode(input);
+            }
+        });
+        int rejected = 0;
+        for (Runnable path : paths) {
+            try {
+                path.run();
+            } catch (IllegalArgumentException e) {
+                rejected++;
+            }
+        }
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": symbol above 255, " + paths.size() + " encoding paths\n");
+        testResult.append("Rejected:  " + (rejected == paths.size()) + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // A client stays connected while the server is closed. close() must end that
+    // connection right away instead of waiting for it, the client's next request must
+    // fail, and a new server on the same directory must continue every stream (one
+    // of them spilled before close(), one still live) where the old one stopped.
+    public static String testServerRestart(int testCaseNumber, String[] inputs) {
+        boolean sameBits = true;
+        boolean rejected = false;
+        long closeMillis = -1;
+        try {
+            Path spillDir = Files.createTempDirectory("streams");
+            String[] bits = new String[inputs.length];
+            CompressionServer first = new CompressionServer(0, spillDir, 1, 4, 60_000);
+            try (CompressionClient client = new CompressionClient(first.getPort())) {
+                for (int s = 0; s < inputs.length; s++)
+                    bits[s] = client.encode("restart" + s, inputs[s].substring(0, inputs[s].length() / 2));
+                long start = System.currentTimeMillis();
+                first.close();
+                closeMillis = System.currentTimeMillis() - start;
+                try {
+                    client.encode("restart0", "X");
+                } catch (IOException e) {
+                    rejected = true;
+                }
+            }
+            try (CompressionServer second = new CompressionServer(0, spillDir, 1, 4, 60_000);
+                    CompressionClient client = new CompressionClient(second.getPort())) {
+                for (int s = 0; s < inputs.length; s++) {
+                    bits[s] += client.encode("restart" + s, inputs[s].substring(inputs[s].length() / 2));
+                    sameBits &= bits[s].equals(new Encoder().encode(inputs[s]));
+                    client.closeStream("restart" + s);
+                }
+            }
+            Files.delete(spillDir);
+        } catch (IOException e) {
+            e.printStackTrace();
+            sameBits = false;
+        }
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": server restart with a connected client, "
+                + inputs.length + " streams\n");
+        testResult.append("Closed promptly: " + (closeMillis >= 0 && closeMillis < 2000) + "\n");
+        testResult.append("Rejected after close: " + rejected + "\n");
+        testResult.append("Same bits: " + sameBits + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // Several clients encode chunks on the same stream at the same time. Whatever
+    // order the server ran them in, every response must be the bits of its chunk
+    // from one shared tree: the test looks for an order of the requests (each
+    // client's own requests stay in order) in which all responses decode correctly.
+    public static String testSharedStream(int testCaseNumber, int clients, String[] chunks) {
+        List<List<String[]>> responses = new ArrayList<>();
+        int requests = 0;
+        boolean matched;
+        try {
+            Path spillDir = Files.createTempDirectory("streams");
+            try (CompressionServer server = new CompressionServer(0, spillDir, 1, clients + 1, 60_000)) {
+                List<Thread> threads = new ArrayList<>();
+                for (int c = 0; c < clients; c++) {
+                    List<String[]> own = new ArrayList<>();
+                    responses.add(own);
+                    String suffix = String.valueOf(c);
+                    Thread thread = new Thread(() -> {
+                        try (CompressionClient client = new CompressionClient(server.getPort())) {
+                            for (int round = 0; round < 10; round++) {
+                                for (String chunk : chunks)
+                                    own.add(new String[] { chunk + suffix, client.encode("shared", chunk + suffix) });
+                                // Another stream forces "shared" to be spilled and resumed.
+                                client.encode("other", "X");
+                            }
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                        }
+                    });
+                    threads.add(thread);
+                    thread.start();
+                }
+                for (Thread thread : threads)
+                    thread.join();
+                try (CompressionClient client = new CompressionClient(server.getPort())) {
+                    client.closeStream("shared");
+                    client.closeStream("other");
+                }
+            }
+            Files.delete(spillDir);
+
+            for (List<String[]> own : responses)
+                requests += own.size();
+            matched = requests == clients * 10 * chunks.length
+                    && replay(responses, new int[clients], saveState(new HuffmanTree()));
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+            matched = false;
+        }
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": " + clients + " clients on one stream, "
+                + requests + " requests\n");
+        testResult.append("Matched:   " + matched + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // Depth-first search over which client's next response comes next: it is taken
+    // if its bits decode to its chunk from the current tree state.
+    private static boolean replay(List<List<String[]>> responses, int[] next, byte[] state) throws IOException {
+        boolean done = true;
+        for (int c = 0; c < responses.size(); c++) {
+            if (next[c] == responses.get(c).size())
+                continue;
+            done = false;
+            String[] response = responses.get(c).get(next[c]);
+            HuffmanTree tree = HuffmanTree.readState(new DataInputStream(new ByteArrayInputStream(state)));
+            Decoder decoder = new Decoder(tree);
+            if (decoder.decode(response[1]).equals(response[0]) && decoder.getPendingBits().isEmpty()) {
+                next[c]++;
+                if (replay(responses, next, saveState(tree)))
+                    return true;
+                next[c]--;
+            }
+        }
+        return done;
+    }
+
+    private static byte[] saveState(HuffmanTree tree) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            tree.writeState(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Reads a slice from the middle using the sync point index (saved and loaded
+    // again), with the tree either reset or snapshotted at every sync point.
+    public static String testSyncPoints(int testCaseNumber, String input, int interval, boolean snapshots) {
+        SyncPointEncoder encoder = new SyncPointEncoder(interval, snapshots);
+        SyncPointDecoder decoder = new SyncPointDecoder();
+        String compressed = encoder.encode(input);
+        int from = input.length() / 2 + 7;
+        String slice = "";
+        String decompressed = "";
+        try {
+            Path indexFile = Files.createTempFile("sync", ".idx");
+            encoder.getIndex().save(indexFile);
+            SyncIndex index = SyncIndex.load(indexFile);
+            Files.delete(indexFile);
+            slice = decoder.decodeRange(compressed, index, from, 100);
+            decompressed = decoder.decode(compressed, index);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": sync point every " + interval + " symbols ("
+                + (snapshots ? "snapshot" : "reset") + "), " + input.length() + " symbols\n");
+        testResult.append("Encoded:   " + compressed.length() + " bits (plain adaptive: "
+                + new Encoder().encode(input).length() + " bits)\n");
+        testResult.append("Slice:     " + slice.equals(input.substring(from, from + 100)) + "\n");
+        testResult.append("Matched:   " + input.equals(decompressed) + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // The analyzer only counts code lengths; its total must equal the real encoder's.
+    public static String testAnalyzer(int testCaseNumber, String input) {
+        CompressionAnalyzer analyzer = new CompressionAnalyzer(input);
+        String compressed = new Encoder().encode(input);
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": analyzer, " + input.length() + " symbols\n");
+        testResult.append(String.format("Entropy:   %.4f (order-0) / %.4f (order-1) bits/symbol\n",
+                analyzer.getOrder0Entropy(), analyzer.getOrder1Entropy()));
+        testResult.append(String.format("Achieved:  %.4f bits/symbol\n", analyzer.getBitsPerSymbol()));
+        testResult.append("Matched:   " + (analyzer.getTotalBits() == compressed.length()) + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    // Packed bit output must carry exactly the bits of the string encoder. The
+    // packed stream is also decoded in two chunks split in the middle of a code.
+    public static String testPacked(int testCaseNumber, String input) {
+        BitWriter writer = new BitWriter();
+        new Encoder().encode(input, writer);
+        byte[] packed = writer.toByteArray();
+        String decompressed = new Decoder().decode(new BitReader(packed, writer.getBitLength()));
+        String compressed = new Encoder().encode(input);
+
+        int split = compressed.length() / 2 + 3;
+        Decoder decoder = new Decoder();
+        for (String chunk : new String[] { compressed.substring(0, split), compressed.substring(split) }) {
+            BitWriter part = new BitWriter();
+            part.writeCode(chunk);
+            decoder.decode(new BitReader(part.toByteArray(), part.getBitLength()));
+        }
+        boolean splitMatched = decoder.drain().equals(input) && decoder.getPendingBits().isEmpty();
+
+        StringBuilder testResult = new StringBuilder();
+        testResult.append("Test Case " + testCaseNumber + ": packed bits, " + input.length() + " symbols\n");
+        testResult.append("Encoded:   " + packed.length + " bytes, CRC32C " + Long.toHexString(writer.checksum()) + "\n");
+        testResult.append("Same bits: " + writer.toString().equals(compressed) + "\n");
+        testResult.append("Matched:   " + input.equals(decompressed) + "\n");
+        testResult.append("Split:     " + splitMatched + "\n");
+        testResult.append("**********\n\n");
+        return testResult.toString();
+    }
+
+    private static String repeat(String text, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < times; k++)
+            sb.append(text);
+        return sb.toString();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+import java.io.*;
+
+// What Encoder and Decoder need from an adaptive Huffman tree.
+// HuffmanTree keeps its nodes on the heap and OffHeapHuffmanTree in a direct
+// buffer; both run the algorithm in AbstractHuffmanTree, so their bits are the same.
+public interface AdaptiveTree {
+    // Returns the code for the symbol (NYT code + 8 bits for a new symbol) and
+    // updates the tree.
+    String encode(char symbol);
+
+    // Same as encode(symbol), but the code goes straight into a BitWriter.
+    void encode(char symbol, BitWriter out);
+
+    // Decodes one symbol starting at bit i, appends it to out and returns the new
+    // position, or -1 if the stream ends in the middle of a code. In that case the
+    // tree is left unchanged.
+    int decode(String bitstream, int i, StringBuilder out);
+
+    // Packed version of decode(): returns false if the reader runs out in the
+    // middle of a code. The tree is then unchanged, but the bits are consumed.
+    boolean decode(BitReader in, StringBuilder out);
+
+    // Writes the complete adaptive state; see AbstractHuffmanTree.writeState.
+    void writeState(DataOutputStream out) throws IOException;
+}
\ No newline at end of file
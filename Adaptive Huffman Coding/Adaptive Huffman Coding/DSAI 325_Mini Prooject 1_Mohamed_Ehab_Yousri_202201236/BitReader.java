@@ -0,0 +1,72 @@
+// Reads bits written by BitWriter. Bytes are loaded into a 64-bit window a few at
+// a time, so most reads are a shift on the window rather than an array access.
+public class BitReader {
+    private byte[] bytes;
+    private long bitLength;
+    private long position;
+    private int nextByte;
+    private long window;
+    private int windowBits;
+
+    public BitReader(byte[] bytes, long bitLength) {
+        if (bitLength < 0 || bitLength > 8L * bytes.length)
+            throw new IllegalArgumentException("Bit length outside of the buffer: " + bitLength);
+        this.bytes = bytes;
+        this.bitLength = bitLength;
+    }
+
+    public boolean hasMore() {
+        return position < bitLength;
+    }
+
+    public long remaining() {
+        return bitLength - position;
+    }
+
+    public boolean readBit() {
+        return readBits(1) == 1;
+    }
+
+    // Reads `count` bits (0 <= count <= 56), first bit read ends up highest.
+    public long readBits(int count) {
+        if (count < 0 || count > 56)
+            throw new IllegalArgumentException("Can only read 0 to 56 bits at a time: " + count);
+        if (count > remaining())
+            throw new IllegalStateException("Read past the end of the bit stream");
+        if (count == 0)
+            return 0;
+        if (windowBits < count)
+            refill();
+        windowBits -= count;
+        position += count;
+        return (window >>> windowBits) & ((1L << count) - 1);
+    }
+
+    // Tops the window up with whole bytes while at least 8 bits are free.
+    private void refill() {
+        while (windowBits <= 56 && nextByte < bytes.length) {
+            window = (window << 8) | (bytes[nextByte++] & 0xFF);
+            windowBits += 8;
+        }
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    // Moves to an absolute bit position, e.g. back to the start of a code that
+    // turned out to be incomplete.
+    public void seek(long position) {
+        if (position < 0 || position > bitLength)
+            throw new IllegalArgumentException("Position outside of the bit stream: " + position);
+        this.position = position;
+        nextByte = (int) (position >>> 3);
+        window = 0;
+        windowBits = 0;
+        int skip = (int) (position & 7);
+        if (skip > 0) {
+            refill();
+            windowBits -= skip;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+// Packs variable-length codes into real bits instead of '0'/'1' chars.
+// Bits collect in a 64-bit accumulator (most significant bit first) and are only
+// stored when a whole 64-bit word is full, so writing a code is a shift and an or.
+public class BitWriter {
+    private long[] words = new long[16];
+    private int wordCount;
+    private long accumulator;
+    private int accumulatedBits;
+
+    // Writes the lowest `count` bits of value, highest of them first (0 <= count <= 64).
+    public void writeBits(long value, int count) {
+        if (count == 0)
+            return;
+        if (count < 64)
+            value &= (1L << count) - 1;
+        int free = 64 - accumulatedBits;
+        if (count < free) {
+            accumulator = (accumulator << count) | value;
+            accumulatedBits += count;
+            return;
+        }
+        // Fill the word, flush it, keep what did not fit.
+        int rest = count - free;
+        long word = free == 64 ? value : (accumulator << free) | (value >>> rest);
+        flushWord(word);
+        accumulator = rest == 0 ? 0 : value & ((1L << rest) - 1);
+        accumulatedBits = rest;
+    }
+
+    public void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    // Writes a code given as a '0'/'1' string, e.g. from HuffmanTree.getCode().
+    public void writeCode(String code) {
+        for (int i = 0; i < code.length(); i += 64) {
+            int end = Math.min(code.length(), i + 64);
+            long value = 0;
+            for (int k = i; k < end; k++)
+                value = (value << 1) | (code.charAt(k) == '1' ? 1 : 0);
+            writeBits(value, end - i);
+        }
+    }
+
+    private void flushWord(long word) {
+        if (wordCount == words.length)
+            words = Arrays.copyOf(words, words.length * 2);
+        words[wordCount++] = word;
+    }
+
+    public long getBitLength() {
+        return 64L * wordCount + accumulatedBits;
+    }
+
+    // The packed bits, padded with zeros to a whole byte.
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[(int) ((getBitLength() + 7) / 8)];
+        int b = 0;
+        for (int w = 0; w < wordCount; w++) {
+            long word = words[w];
+            for (int shift = 56; shift >= 0; shift -= 8)
+                bytes[b++] = (byte) (word >>> shift);
+        }
+        long tail = accumulatedBits == 0 ? 0 : accumulator << (64 - accumulatedBits);
+        for (int shift = 56; b < bytes.length; shift -= 8)
+            bytes[b++] = (byte) (tail >>> shift);
+        return bytes;
+    }
+
+    // CRC32C of the packed bytes, to check a block after storage or transfer.
+    // The JDK computes it with hardware CRC instructions where they exist.
+    public long checksum() {
+        CRC32C crc = new CRC32C();
+        crc.update(toByteArray());
+        return crc.getValue();
+    }
+
+    // Same bits as a '0'/'1' string, for comparing with the String based encoders.
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder((int) getBitLength());
+        BitReader reader = new BitReader(toByteArray(), getBitLength());
+        while (reader.hasMore())
+            sb.append(reader.readBit() ? '1' : '0');
+        return sb.toString();
+    }
+}
\ No newline at end of file
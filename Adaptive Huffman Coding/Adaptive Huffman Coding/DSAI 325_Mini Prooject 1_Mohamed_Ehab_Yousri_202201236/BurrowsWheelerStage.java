@@ -0,0 +1,101 @@
+import java.util.*;
+
+// Burrows–Wheeler transform of a block, built from its suffix array.
+// The block is sorted as if it ended with a sentinel smaller than every symbol;
+// the sentinel is dropped from the output and its row is sent instead as a 4-char
+// (32-bit) primary index in front of the transformed block.
+public class BurrowsWheelerStage implements TransformStage {
+    private static final int INDEX_CHARS = 4;
+
+    @Override
+    public String forward(String block) {
+        int n = block.length();
+        int[] sa = suffixArray(block);
+        StringBuilder out = new StringBuilder(n + INDEX_CHARS);
+        // Row 0 of the full matrix is the sentinel suffix, it precedes sa[0].
+        int primary = 0;
+        StringBuilder last = new StringBuilder(n);
+        last.append(n > 0 ? block.charAt(n - 1) : "");
+        for (int k = 0; k < n; k++) {
+            if (sa[k] == 0)
+                primary = k + 1;
+            else
+                last.append(block.charAt(sa[k] - 1));
+        }
+        for (int shift = 24; shift >= 0; shift -= 8)
+            out.append((char) ((primary >>> shift) & 0xFF));
+        out.append(last);
+        return out.toString();
+    }
+
+    @Override
+    public String inverse(String block) {
+        if (block.length() < INDEX_CHARS)
+            throw new IllegalArgumentException("BWT block without primary index");
+        int primary = 0;
+        for (int k = 0; k < INDEX_CHARS; k++)
+            primary = (primary << 8) | block.charAt(k);
+        int n = block.length() - INDEX_CHARS;
+        if (n == 0)
+            return "";
+
+        // Put the sentinel (-1) back at its row to get the full last column.
+        int[] last = new int[n + 1];
+        for (int k = 0, j = INDEX_CHARS; k <= n; k++)
+            last[k] = (k == primary) ? -1 : block.charAt(j++);
+
+        // LF mapping: row of the suffix that starts one position earlier.
+        int[] start = new int[CanonicalHuffman.ALPHABET_SIZE + 1];
+        for (int k = 0; k <= n; k++) {
+            if (last[k] >= 0)
+                start[last[k] + 1]++;
+        }
+        // The sentinel takes row 0, so symbol rows start at 1.
+        start[0] = 1;
+        for (int c = 1; c <= CanonicalHuffman.ALPHABET_SIZE; c++)
+            start[c] += start[c - 1];
+        int[] lf = new int[n + 1];
+        for (int k = 0; k <= n; k++)
+            lf[k] = (last[k] < 0) ? 0 : start[last[k]]++;
+
+        // Walk backwards from the sentinel row.
+        char[] out = new char[n];
+        int row = 0;
+        for (int j = n - 1; j >= 0; j--) {
+            out[j] = (char) last[row];
+            row = lf[row];
+        }
+        return new String(out);
+    }
+
+    // Suffix array by prefix doubling: suffixes are sorted by their first k symbols,
+    // then by 2k using the ranks of the previous round, until all ranks differ.
+    static int[] suffixArray(String s) {
+        int n = s.length();
+        Integer[] order = new Integer[n];
+        int[] rank = new int[n];
+        int[] next = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            rank[i] = s.charAt(i);
+        }
+        for (int k = 1; n > 0; k <<= 1) {
+            final int step = k;
+            final int[] r = rank;
+            // A suffix that runs out of symbols sorts first (sentinel semantics).
+            Comparator<Integer> bySecondHalf = Comparator.comparingInt(i -> i + step < n ? r[i + step] : -1);
+            Comparator<Integer> cmp = Comparator.<Integer>comparingInt(i -> r[i]).thenComparing(bySecondHalf);
+            Arrays.sort(order, cmp);
+            next[order[0]] = 0;
+            for (int i = 1; i < n; i++)
+                next[order[i]] = next[order[i - 1]] + (cmp.compare(order[i - 1], order[i]) < 0 ? 1 : 0);
+            System.arraycopy(next, 0, rank, 0, n);
+            if (rank[order[n - 1]] == n - 1 || step >= n)
+                break;
+        }
+        int[] sa = new int[n];
+        for (int i = 0; i < n; i++)
+            sa[i] = order[i];
+        return sa;
+    }
+}
\ No newline at end of file
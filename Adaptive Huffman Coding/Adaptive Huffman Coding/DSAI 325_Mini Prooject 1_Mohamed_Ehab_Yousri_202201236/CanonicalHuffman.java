@@ -0,0 +1,218 @@
+import java.util.*;
+
+// Static (two-pass) Huffman codec using canonical codes.
+// Unlike HuffmanTree, the code table is fixed for a whole block, so encoding is a
+// table lookup and decoding uses a lookup table instead of walking the tree.
+public class CanonicalHuffman {
+    // Symbols are 8-bit, the same as the literals HuffmanTree emits after NYT.
+    public static final int ALPHABET_SIZE = 256;
+    // Codes up to this length are decoded with a single table lookup.
+    private static final int TABLE_BITS = 8;
+
+    private int[] lengths;
+    private String[] codes;
+    // Canonical decoding data: symbols sorted by (length, symbol),
+    // and for every length the first code and its index in sortedSymbols.
+    private int[] sortedSymbols;
+    private int[] firstCode;
+    private int[] firstIndex;
+    private int[] lengthCount;
+    private int maxLength;
+    // Fast path: table[peek of TABLE_BITS bits] = (length << 16) | symbol, 0 if longer.
+    private int[] table;
+    // Number of bits the header occupied when the codec was read from a stream.
+    private int headerBits;
+
+    public CanonicalHuffman(int[] lengths) {
+        this.lengths = lengths;
+        buildCodes();
+        buildTable();
+    }
+
+    // Builds a codec from symbol frequencies (first pass over the block).
+    public static CanonicalHuffman fromFrequencies(int[] freq) {
+        return new CanonicalHuffman(codeLengths(freq));
+    }
+
+    // Classic Huffman construction, only used to get the code length of each symbol.
+    // Node.compareTo already orders nodes by count, so a PriorityQueue does the work.
+    public static int[] codeLengths(int[] freq) {
+        int[] lengths = new int[ALPHABET_SIZE];
+        PriorityQueue<Node> queue = new PriorityQueue<>();
+        for (int s = 0; s < ALPHABET_SIZE; s++) {
+            if (freq[s] > 0)
+                queue.add(new Node((char) s, freq[s], 0, false));
+        }
+        if (queue.isEmpty())
+            return lengths;
+        // A block with a single distinct symbol still needs a 1-bit code.
+        if (queue.size() == 1) {
+            lengths[queue.poll().symbol] = 1;
+            return lengths;
+        }
+        while (queue.size() > 1) {
+            Node a = queue.poll();
+            Node b = queue.poll();
+            Node parent = new Node('\0', a.count + b.count, 0, false);
+            parent.left = a;
+            parent.right = b;
+            a.parent = parent;
+            b.parent = parent;
+            queue.add(parent);
+        }
+        assignLengths(queue.poll(), 0, lengths);
+        return lengths;
+    }
+
+    private static void assignLengths(Node node, int depth, int[] lengths) {
+        if (node.isLeaf()) {
+            lengths[node.symbol] = depth;
+            return;
+        }
+        assignLengths(node.left, depth + 1, lengths);
+        assignLengths(node.right, depth + 1, lengths);
+    }
+
+    // Assigns canonical codes: shorter codes first, ties broken by symbol value.
+    private void buildCodes() {
+        maxLength = 0;
+        int used = 0;
+        for (int s = 0; s < ALPHABET_SIZE; s++) {
+            if (lengths[s] > 0) {
+                used++;
+                maxLength = Math.max(maxLength, lengths[s]);
+            }
+        }
+        lengthCount = new int[maxLength + 1];
+        for (int s = 0; s < ALPHABET_SIZE; s++) {
+            if (lengths[s] > 0)
+                lengthCount[lengths[s]]++;
+        }
+        sortedSymbols = new int[used];
+        firstIndex = new int[maxLength + 2];
+        for (int len = 1; len <= maxLength; len++)
+            firstIndex[len + 1] = firstIndex[len] + lengthCount[len];
+        int[] next = Arrays.copyOf(firstIndex, firstIndex.length);
+        for (int s = 0; s < ALPHABET_SIZE; s++) {
+            if (lengths[s] > 0)
+                sortedSymbols[next[lengths[s]]++] = s;
+        }
+
+        // first code of each length = (first code of previous length + its count) << 1
+        firstCode = new int[maxLength + 1];
+        codes = new String[ALPHABET_SIZE];
+        long code = 0;
+        for (int len = 1; len <= maxLength; len++) {
+            code = (code + lengthCount[len - 1]) << 1;
+            firstCode[len] = (int) code;
+            for (int k = 0; k < lengthCount[len]; k++) {
+                int s = sortedSymbols[firstIndex[len] + k];
+                codes[s] = toBits(code + k, len);
+            }
+        }
+    }
+
+    private void buildTable() {
+        table = new int[1 << TABLE_BITS];
+        for (int s = 0; s < ALPHABET_SIZE; s++) {
+            int len = lengths[s];
+            if (len == 0 || len > TABLE_BITS)
+                continue;
+            // Every table slot whose high bits equal the code maps to this symbol.
+            int base = Integer.parseInt(codes[s], 2) << (TABLE_BITS - len);
+            for (int fill = 0; fill < (1 << (TABLE_BITS - len)); fill++)
+                table[base + fill] = (len << 16) | s;
+        }
+    }
+
+    public String encode(char symbol) {
+        String code = symbol < ALPHABET_SIZE ? codes[symbol] : null;
+        if (code == null)
+            throw new IllegalArgumentException("Symbol not in code table: " + (int) symbol);
+        return code;
+    }
+
+    // Decodes one symbol starting at bit i, appends it to out and returns the new position.
+    public int decode(String bits, int i, StringBuilder out) {
+        // Fast path: peek TABLE_BITS bits (zero padded at the end of the stream).
+        int peek = 0;
+        for (int k = 0; k < TABLE_BITS; k++) {
+            peek <<= 1;
+            if (i + k < bits.length() && bits.charAt(i + k) == '1')
+                peek |= 1;
+        }
+        int entry = table[peek];
+        if (entry != 0) {
+            out.append((char) (entry & 0xFFFF));
+            return i + (entry >>> 16);
+        }
+        // Slow path for long codes: extend the code one bit at a time until it falls
+        // inside the canonical range of its length.
+        int code = 0;
+        for (int len = 1; len <= maxLength; len++) {
+            if (i >= bits.length())
+                break;
+            code = (code << 1) | (bits.charAt(i++) == '1' ? 1 : 0);
+            int offset = code - firstCode[len];
+            if (offset >= 0 && offset < lengthCount[len]) {
+                out.append((char) sortedSymbols[firstIndex[len] + offset]);
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Invalid canonical code at bit " + i);
+    }
+
+    // Header: 9 bits for the number of coded symbols, then 8-bit symbol + 8-bit length
+    // for each one. The decoder rebuilds the same canonical codes from the lengths alone.
+    public void writeHeader(StringBuilder out) {
+        out.append(toBits(sortedSymbols.length, 9));
+        for (int s = 0; s < ALPHABET_SIZE; s++) {
+            if (lengths[s] > 0) {
+                out.append(toBits(s, 8));
+                out.append(toBits(lengths[s], 8));
+            }
+        }
+    }
+
+    public static CanonicalHuffman readHeader(String bits, int i) {
+        int start = i;
+        int count = Integer.parseInt(bits.substring(i, i + 9), 2);
+        i += 9;
+        int[] lengths = new int[ALPHABET_SIZE];
+        for (int k = 0; k < count; k++) {
+            int s = Integer.parseInt(bits.substring(i, i + 8), 2);
+            lengths[s] = Integer.parseInt(bits.substring(i + 8, i + 16), 2);
+            i += 16;
+        }
+        CanonicalHuffman codec = new CanonicalHuffman(lengths);
+        codec.headerBits = i - start;
+        return codec;
+    }
+
+    // Exact size in bits of the header plus the payload for the given frequencies.
+    public long cost(int[] freq) {
+        long bits = 9 + 16L * sortedSymbols.length;
+        for (int s = 0; s < ALPHABET_SIZE; s++)
+            bits += (long) freq[s] * lengths[s];
+        return bits;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public int getHeaderBits() {
+        return headerBits;
+    }
+
+    public int[] getLengths() {
+        return lengths;
+    }
+
+    static String toBits(long value, int width) {
+        StringBuilder sb = new StringBuilder(width);
+        for (int b = width - 1; b >= 0; b--)
+            sb.append(((value >>> b) & 1) == 1 ? '1' : '0');
+        return sb.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+
+// Runs the adaptive coder over an input without producing output and reports how
+// well it does compared with the entropy of the data, to help pick settings.
+// Only code lengths are counted (HuffmanTree.encodeLength), no bit strings are built.
+public class CompressionAnalyzer {
+    private static final int ALPHABET_SIZE = CanonicalHuffman.ALPHABET_SIZE;
+    public static final int[] DEFAULT_BLOCK_SIZES = { 1024, 4096, 16384, 65536 };
+
+    private String input;
+    private int distinct;
+    private double order0Entropy;
+    private double order1Entropy;
+    private long totalBits;
+    // Bits spent on NYT escape codes and on the 8-bit literals after them.
+    private long nytBits;
+    private long literalBits;
+    // codeLengths[d] = how many symbols were sent with a d-bit code (escapes excluded).
+    private long[] codeLengths = new long[64];
+    private int maxCodeLength;
+
+    public CompressionAnalyzer(String input) {
+        this.input = input;
+        // The entropy tables are indexed by symbol before the tree runs.
+        for (int k = 0; k < input.length(); k++)
+            AbstractHuffmanTree.checkSymbol(input.charAt(k));
+        measureEntropy();
+        measureCoder();
+    }
+
+    private void measureEntropy() {
+        int n = input.length();
+        long[] counts = new long[ALPHABET_SIZE];
+        long[][] pairs = new long[ALPHABET_SIZE][];
+        char previous = 0;
+        for (int k = 0; k < n; k++) {
+            char c = input.charAt(k);
+            counts[c]++;
+            if (k > 0) {
+                if (pairs[previous] == null)
+                    pairs[previous] = new long[ALPHABET_SIZE];
+                pairs[previous][c]++;
+            }
+            previous = c;
+        }
+        for (int c = 0; c < ALPHABET_SIZE; c++) {
+            if (counts[c] > 0)
+                distinct++;
+        }
+        order0Entropy = entropy(counts, n);
+
+        // H(X | previous symbol) = sum over contexts of P(context) * H(next | context).
+        long contexts = Math.max(0, n - 1);
+        double sum = 0;
+        for (int c = 0; c < ALPHABET_SIZE; c++) {
+            if (pairs[c] == null)
+                continue;
+            long total = 0;
+            for (long count : pairs[c])
+                total += count;
+            sum += (double) total / contexts * entropy(pairs[c], total);
+        }
+        order1Entropy = sum;
+    }
+
+    private static double entropy(long[] counts, long total) {
+        double h = 0;
+        for (long count : counts) {
+            if (count > 0) {
+                double p = (double) count / total;
+                h -= p * Math.log(p) / Math.log(2);
+            }
+        }
+        return h;
+    }
+
+    private void measureCoder() {
+        HuffmanTree tree = new HuffmanTree();
+        for (int k = 0; k < input.length(); k++) {
+            char c = input.charAt(k);
+            boolean isNew = !tree.getSymbolMap().containsKey(c);
+            int length = tree.encodeLength(c);
+            totalBits += length;
+            if (isNew) {
+                nytBits += length - 8;
+                literalBits += 8;
+            } else {
+                if (length >= codeLengths.length)
+                    codeLengths = Arrays.copyOf(codeLengths, length * 2);
+                codeLengths[length]++;
+                maxCodeLength = Math.max(maxCodeLength, length);
+            }
+        }
+    }
+
+    // Total bits when the tree is reset every blockSize symbols.
+    public long predictBits(int blockSize) {
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        HuffmanTree tree = new HuffmanTree();
+        long bits = 0;
+        for (int k = 0; k < input.length(); k++) {
+            if (k % blockSize == 0)
+                tree = new HuffmanTree();
+            bits += tree.encodeLength(input.charAt(k));
+        }
+        return bits;
+    }
+
+    public double getOrder0Entropy() {
+        return order0Entropy;
+    }
+
+    public double getOrder1Entropy() {
+        return order1Entropy;
+    }
+
+    public long getTotalBits() {
+        return totalBits;
+    }
+
+    public double getBitsPerSymbol() {
+        return input.isEmpty() ? 0 : (double) totalBits / input.length();
+    }
+
+    public long getNytBits() {
+        return nytBits;
+    }
+
+    public long getLiteralBits() {
+        return literalBits;
+    }
+
+    public String report(int... blockSizes) {
+        int n = input.length();
+        StringBuilder sb = new StringBuilder();
+        sb.append("===== Compression Analysis =====\n");
+        sb.append(String.format("Symbols:              %d (%d distinct)\n", n, distinct));
+        sb.append(String.format("Order-0 entropy:      %.4f bits/symbol\n", order0Entropy));
+        sb.append(String.format("Order-1 entropy:      %.4f bits/symbol\n", order1Entropy));
+        sb.append(String.format("Adaptive Huffman:     %.4f bits/symbol (%d bits)\n", getBitsPerSymbol(), totalBits));
+        sb.append(String.format("Gap to order-0:       %.4f bits/symbol\n", getBitsPerSymbol() - order0Entropy));
+        sb.append(String.format("NYT overhead:         %d escape + %d literal bits (%.2f%% of output)\n",
+                nytBits, literalBits, totalBits == 0 ? 0 : 100.0 * (nytBits + literalBits) / totalBits));
+        sb.append(String.format("Ratio vs 8-bit input: %.4f\n", ratio(totalBits)));
+        sb.append("Code length distribution:\n");
+        for (int d = 0; d <= maxCodeLength; d++) {
+            if (codeLengths[d] > 0)
+                sb.append(String.format("  %3d bits: %d (%.2f%%)\n", d, codeLengths[d], 100.0 * codeLengths[d] / n));
+        }
+        sb.append("Predicted ratio with tree reset every block:\n");
+        for (int blockSize : blockSizes) {
+            long bits = predictBits(blockSize);
+            sb.append(String.format("  %8d symbols: %.4f (%.4f bits/symbol)\n", blockSize, ratio(bits),
+                    n == 0 ? 0 : (double) bits / n));
+        }
+        sb.append("================================");
+        return sb.toString();
+    }
+
+    private double ratio(long bits) {
+        return input.isEmpty() ? 0 : bits / (8.0 * input.length());
+    }
+
+    // Usage: CompressionAnalyzer <file> [blockSize...]
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: CompressionAnalyzer <file> [blockSize...]");
+            return;
+        }
+        String input = new String(Files.readAllBytes(Paths.get(args[0])), StandardCharsets.ISO_8859_1);
+        int[] blockSizes = DEFAULT_BLOCK_SIZES;
+        if (args.length > 1) {
+            blockSizes = new int[args.length - 1];
+            for (int k = 1; k < args.length; k++)
+                blockSizes[k - 1] = Integer.parseInt(args[k]);
+        }
+        System.out.println(new CompressionAnalyzer(input).report(blockSizes));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+
+// Small blocking client for CompressionServer. One client is one connection and
+// can work on any number of streams.
+public class CompressionClient implements Closeable {
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    public CompressionClient(int port) throws IOException {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    // Returns the bits for this chunk of the stream.
+    public String encode(String streamId, String text) throws IOException {
+        return call(CompressionServer.ENCODE, streamId, text);
+    }
+
+    // Returns the symbols completed by this chunk of bits.
+    public String decode(String streamId, String bits) throws IOException {
+        return call(CompressionServer.DECODE, streamId, bits);
+    }
+
+    // Drops the stream's state on the server.
+    public void closeStream(String streamId) throws IOException {
+        call(CompressionServer.CLOSE, streamId, "");
+    }
+
+    private String call(byte op, String streamId, String payload) throws IOException {
+        byte[] bytes = payload.getBytes(StandardCharsets.ISO_8859_1);
+        out.writeByte(op);
+        out.writeUTF(streamId);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.flush();
+
+        byte status = in.readByte();
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        String result = new String(body, StandardCharsets.ISO_8859_1);
+        if (status != CompressionServer.OK)
+            throw new IOException("Server error: " + result);
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,423 @@
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+
+// Local TCP service that keeps one adaptive Encoder/Decoder pair per named stream,
+// so clients no longer embed the classes and manage the tree state themselves.
+//
+// Protocol (DataInputStream/DataOutputStream framing):
+//   request:  byte op ('E' encode, 'D' decode, 'C' close stream), UTF stream id,
+//             int length, payload bytes (ISO-8859-1 text, or '0'/'1' bits)
+//   response: byte status ('K' ok, 'X' error), int length, payload bytes
+// 'E' returns the bits for just that chunk, 'D' the symbols completed by it.
+//
+// Memory is bounded in two ways: at most maxLiveStreams trees are kept in memory
+// (the least recently used idle stream is spilled to disk with checkpoint() and
+// resumed on its next request), and streams idle for longer than idleMillis are
+// spilled too. Connections are served by a fixed pool; when every worker is busy
+// the server stops accepting, which pushes back on clients through the TCP backlog.
+// A connection that sends nothing for idleMillis is closed, so idle clients cannot
+// hold a worker forever; the client has to reconnect to continue.
+// close() closes every open connection before the final spill, so no request can
+// change a stream after it has been written out.
+//
+// Locking: the sessions map (and every Session's inUse, spilling and lastUsed) is
+// guarded by the sessions monitor, which is only held to find or claim an entry.
+// The encoder/decoder of a session, and all checkpoint/resume file I/O for it, are
+// guarded by the Session itself, so requests on one stream run one at a time while
+// other streams are not blocked. When both are needed, the Session is locked first.
+public class CompressionServer implements Closeable {
+    public static final int DEFAULT_PORT = 7070;
+    public static final byte ENCODE = 'E';
+    public static final byte DECODE = 'D';
+    public static final byte CLOSE = 'C';
+    public static final byte OK = 'K';
+    public static final byte ERROR = 'X';
+    // Largest payload accepted in one request.
+    public static final int MAX_PAYLOAD = 16 * 1024 * 1024;
+    // Stream ids are used as spill file names.
+    private static final Pattern STREAM_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final ServerSocket serverSocket;
+    private final Path spillDir;
+    private final int maxLiveStreams;
+    private final long idleMillis;
+    private final ExecutorService workers;
+    private final Semaphore connectionSlots;
+    private final ScheduledExecutorService sweeper;
+    // Live streams in least recently used order.
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    // Accepted connections that are still open, so close() can end them.
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+
+    // State of one stream. While a request holds it (inUse > 0) it is never removed,
+    // and while it is being spilled (spilling) no other spill picks it.
+    private static class Session {
+        Encoder encoder;
+        Decoder decoder;
+        boolean loaded;
+        long lastUsed = System.currentTimeMillis();
+        int inUse;
+        boolean spilling;
+    }
+
+    public CompressionServer(int port, Path spillDir, int maxLiveStreams, int maxConnections, long idleMillis)
+            throws IOException {
+        if (maxLiveStreams < 1 || maxConnections < 1)
+            throw new IllegalArgumentException("Stream and connection limits must be positive");
+        this.spillDir = Files.createDirectories(spillDir);
+        this.maxLiveStreams = maxLiveStreams;
+        this.idleMillis = idleMillis;
+        this.serverSocket = new ServerSocket(port, maxConnections, InetAddress.getLoopbackAddress());
+        this.workers = Executors.newFixedThreadPool(maxConnections);
+        this.connectionSlots = new Semaphore(maxConnections);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor();
+        long period = Math.max(1, idleMillis / 2);
+        sweeper.scheduleAtFixedRate(this::spillIdle, period, period, TimeUnit.MILLISECONDS);
+        Thread acceptor = new Thread(this::acceptLoop, "compression-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                connectionSlots.acquire();
+                Socket socket = serverSocket.accept();
+                connections.add(socket);
+                // close() may have gone over the set before this socket was added.
+                if (!running)
+                    socket.close();
+                workers.execute(() -> {
+                    try {
+                        serve(socket);
+                    } finally {
+                        connections.remove(socket);
+                        connectionSlots.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                connectionSlots.release();
+                if (running)
+                    e.printStackTrace();
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+                DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+            s.setSoTimeout((int) Math.min(idleMillis, Integer.MAX_VALUE));
+            while (running) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                String streamId = in.readUTF();
+                int length = in.readInt();
+                if (length < 0 || length > MAX_PAYLOAD) {
+                    writeResponse(out, ERROR, "Payload too large: " + length);
+                    return;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                try {
+                    String result = handle(op, streamId, new String(payload, StandardCharsets.ISO_8859_1));
+                    writeResponse(out, OK, result);
+                } catch (IllegalArgumentException | IOException e) {
+                    writeResponse(out, ERROR, String.valueOf(e.getMessage()));
+                }
+            }
+        } catch (IOException e) {
+            // Connection dropped or idle for too long; the stream state stays with the server.
+        }
+    }
+
+    private static void writeResponse(DataOutputStream out, byte status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.ISO_8859_1);
+        out.writeByte(status);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.flush();
+    }
+
+    private String handle(byte op, String streamId, String payload) throws IOException {
+        if (!running)
+            throw new IllegalArgumentException("Server is shutting down");
+        if (!STREAM_ID.matcher(streamId).matches())
+            throw new IllegalArgumentException("Invalid stream id: " + streamId);
+        if (op == CLOSE) {
+            closeStream(streamId);
+            return "";
+        }
+        if (op != ENCODE && op != DECODE)
+            throw new IllegalArgumentException("Unknown operation: " + (char) op);
+        if (op == DECODE) {
+            for (int k = 0; k < payload.length(); k++) {
+                char c = payload.charAt(k);
+                if (c != '0' && c != '1')
+                    throw new IllegalArgumentException("Decode payload must be a bit string");
+            }
+        }
+
+        Session session = acquire(streamId);
+        try {
+            // Encoding and draining must not interleave with another request on the
+            // same stream, or the tree and the returned chunk get mixed up.
+            synchronized (session) {
+                if (op == ENCODE) {
+                    session.encoder.encode(payload);
+                    return session.encoder.drain();
+                }
+                session.decoder.decode(payload);
+                return session.decoder.drain();
+            }
+        } finally {
+            release(session);
+        }
+    }
+
+    // Returns the live session, resuming it from its spill files or creating it.
+    private Session acquire(String streamId) throws IOException {
+        Session session;
+        synchronized (sessions) {
+            session = sessions.get(streamId);
+            if (session == null) {
+                session = new Session();
+                sessions.put(streamId, session);
+            }
+            session.inUse++;
+            session.lastUsed = System.currentTimeMillis();
+        }
+        try {
+            synchronized (session) {
+                if (!session.loaded)
+                    load(streamId, session);
+            }
+        } catch (IOException e) {
+            release(session);
+            throw e;
+        }
+        try {
+            evictOverBudget();
+        } catch (IOException e) {
+            // Failing to spill another stream must not fail this request.
+            e.printStackTrace();
+        }
+        return session;
+    }
+
+    private void release(Session session) {
+        synchronized (sessions) {
+            session.inUse--;
+            session.lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    // Called with the session locked. A stream is only ever spilled while it is in
+    // the map, so no other Session for the same id can be reading these files.
+    // Once close() has started the files are kept: the final spill may already have
+    // passed this session, and they are then the only copy of the stream.
+    private void load(String streamId, Session session) throws IOException {
+        Path enc = spillFile(streamId, "enc");
+        Path dec = spillFile(streamId, "dec");
+        if (Files.exists(enc)) {
+            session.encoder = Encoder.resume(enc);
+            session.decoder = Decoder.resume(dec);
+            if (running) {
+                Files.delete(enc);
+                Files.delete(dec);
+            }
+        } else {
+            session.encoder = new Encoder();
+            session.decoder = new Decoder();
+        }
+        session.loaded = true;
+    }
+
+    // Spills least recently used streams that nobody is using until the budget fits.
+    private void evictOverBudget() throws IOException {
+        Map<String, Session> victims = new LinkedHashMap<>();
+        synchronized (sessions) {
+            int excess = sessions.size() - maxLiveStreams;
+            for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+                if (victims.size() >= excess)
+                    break;
+                if (claim(entry.getValue()))
+                    victims.put(entry.getKey(), entry.getValue());
+            }
+        }
+        IOException failure = null;
+        for (Map.Entry<String, Session> entry : victims.entrySet()) {
+            try {
+                spillAndRemove(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    private void spillIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        Map<String, Session> victims = new LinkedHashMap<>();
+        synchronized (sessions) {
+            for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+                if (entry.getValue().lastUsed < cutoff && claim(entry.getValue()))
+                    victims.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Session> entry : victims.entrySet()) {
+            try {
+                spillAndRemove(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Marks an unused session as being spilled. Called with the sessions monitor held.
+    private static boolean claim(Session session) {
+        if (session.inUse > 0 || session.spilling)
+            return false;
+        session.spilling = true;
+        return true;
+    }
+
+    // Writes a claimed session to disk and drops it from memory. A request that
+    // picked the session up in the meantime waits for the checkpoint on the session
+    // lock and then keeps using it, so the session stays in the map; the files it
+    // leaves behind are overwritten by the next spill or deleted by closeStream().
+    private void spillAndRemove(String streamId, Session session) throws IOException {
+        synchronized (session) {
+            boolean saved = false;
+            try {
+                if (session.loaded)
+                    spill(streamId, session);
+                saved = true;
+            } finally {
+                synchronized (sessions) {
+                    session.spilling = false;
+                    if (saved && session.inUse == 0)
+                        sessions.remove(streamId, session);
+                }
+            }
+        }
+    }
+
+    private void spill(String streamId, Session session) throws IOException {
+        session.encoder.checkpoint(spillFile(streamId, "enc"));
+        session.decoder.checkpoint(spillFile(streamId, "dec"));
+    }
+
+    // Claims the stream like a request does, so nobody resumes it from the files
+    // while they are being deleted, then leaves a fresh session behind.
+    private void closeStream(String streamId) throws IOException {
+        Session session;
+        synchronized (sessions) {
+            session = sessions.get(streamId);
+            if (session != null && (session.inUse > 0 || session.spilling))
+                throw new IllegalArgumentException("Stream is busy: " + streamId);
+            if (session == null) {
+                session = new Session();
+                sessions.put(streamId, session);
+            }
+            session.inUse++;
+        }
+        try {
+            synchronized (session) {
+                Files.deleteIfExists(spillFile(streamId, "enc"));
+                Files.deleteIfExists(spillFile(streamId, "dec"));
+                session.encoder = new Encoder();
+                session.decoder = new Decoder();
+                session.loaded = true;
+            }
+        } finally {
+            synchronized (sessions) {
+                session.inUse--;
+                if (session.inUse == 0)
+                    sessions.remove(streamId, session);
+            }
+        }
+    }
+
+    private Path spillFile(String streamId, String kind) {
+        return spillDir.resolve(streamId + "." + kind);
+    }
+
+    // Number of streams currently held in memory.
+    public int getLiveStreams() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    // Stops accepting, closes the open connections (a worker waiting for the next
+    // request fails out of readByte), waits for the workers and spills every live
+    // stream so the next server started on the same directory can resume them.
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        sweeper.shutdownNow();
+        for (Socket socket : connections) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already gone; the worker ends either way.
+            }
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+        Map<String, Session> remaining;
+        synchronized (sessions) {
+            remaining = new LinkedHashMap<>(sessions);
+            sessions.clear();
+        }
+        for (Map.Entry<String, Session> entry : remaining.entrySet()) {
+            Session session = entry.getValue();
+            synchronized (session) {
+                if (session.loaded)
+                    spill(entry.getKey(), session);
+            }
+        }
+    }
+
+    // Usage: CompressionServer [port] [spillDir] [maxLiveStreams] [maxConnections]
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Path spillDir = Paths.get(args.length > 1 ? args[1] : "huffman-streams");
+        int maxLiveStreams = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        int maxConnections = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+        CompressionServer server = new CompressionServer(port, spillDir, maxLiveStreams, maxConnections, 60_000);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }));
+        System.out.println("Compression server listening on port " + server.getPort());
+    }
+}
\ No newline at end of file
@@ -1,8 +1,14 @@
+import java.io.*;
+import java.nio.file.*;
+
 public class Decoder {
     // tree: the adaptive Huffman tree, initialized fresh for decoding.
     // decodedOutput: holds the reconstructed message.
-    private HuffmanTree tree;
+    private AdaptiveTree tree;
     private StringBuilder decodedOutput;
+    // Bits of a symbol that was cut off at the end of the last chunk; they are
+    // put in front of the next chunk so a stream can be decoded piece by piece.
+    private String pendingBits = "";
 
     public Decoder() {
         // Starts with an empty Huffman Tree containing only an NYT node.
@@ -10,51 +16,92 @@ public class Decoder {
         decodedOutput = new StringBuilder();
     }
 
+    // Continues with an existing tree, e.g. one restored from a checkpoint, or
+    // runs on another tree storage such as OffHeapHuffmanTree.
+    public Decoder(AdaptiveTree tree) {
+        this.tree = tree;
+        decodedOutput = new StringBuilder();
+    }
+
     public String decode(String bitstream) {
+        bitstream = pendingBits + bitstream;
+        pendingBits = "";
         // i is a pointer to track your current bit position in the input binary string.
         int i = 0;
         while (i < bitstream.length()) {
-            // Start traversal from the root
-            Node current = tree.getRoot();
-            // While current is not a leaf node
-            while (!current.isLeaf()) {
-                if (i >= bitstream.length())
-                    // Stop when you reach a leaf node
-                    break;
-                // Traverse the tree using bits:'0' → go left,'1' → go right
-                current = (bitstream.charAt(i++) == '0') ? current.left : current.right;
+            // The tree walks one code from position i (see AbstractHuffmanTree.decode)
+            // and appends the decoded character to the final result.
+            int next = tree.decode(bitstream, i, decodedOutput);
+            if (next < 0) {
+                // The code is cut off: keep its bits for the next chunk
+                pendingBits = bitstream.substring(i);
+                break;
             }
+            i = next;
+        }
+        // return the full decoded message.
+        return decodedOutput.toString();
+    }
 
-            // Case 1: If Node is NYT
-            char symbol;
-            if (current.isNYT) {
-                // Read the next 8 bits to get the ASCII of the new character.
-                if (i + 8 > bitstream.length())
-                    break;
-                // Convert from binary string to a character.
-                String asciiBits = bitstream.substring(i, i + 8);
-                i += 8;
-                symbol = (char) Integer.parseInt(asciiBits, 2);
-                // Insert that character into the tree.
-                tree.insert(symbol);
-
-                // 🧾 Case 2: If Node is a Regular Symbol
-                // If it’s not NYT, the node contains a character seen before.
-                // We extract the character and update the tree to reflect its new frequency and
-                // rebalancing.
-            } else {
-                symbol = current.symbol;
-                tree.update(current);
+    // Decodes packed bits written by Encoder.encode(String, BitWriter). As in
+    // decode(String), a code cut off at the end is kept in pendingBits and is
+    // finished by the next chunk, packed or not.
+    public String decode(BitReader in) {
+        // Finish the code left over from the last chunk one bit at a time; the tree
+        // only changes once the code is complete.
+        while (!pendingBits.isEmpty() && in.hasMore()) {
+            pendingBits += in.readBit() ? '1' : '0';
+            if (tree.decode(pendingBits, 0, decodedOutput) >= 0)
+                pendingBits = "";
+        }
+        while (in.hasMore()) {
+            long start = in.getPosition();
+            if (!tree.decode(in, decodedOutput)) {
+                // The code is cut off: go back and keep its bits for the next chunk
+                in.seek(start);
+                StringBuilder rest = new StringBuilder();
+                while (in.hasMore())
+                    rest.append(in.readBit() ? '1' : '0');
+                pendingBits = rest.toString();
             }
-            // Append the decoded character to the final result.
-            decodedOutput.append(symbol);
         }
-        // return the full decoded message.
         return decodedOutput.toString();
     }
 
+    // Returns the symbols produced since the last drain and clears them, so a
+    // long-lived stream can hand out its output chunk by chunk.
+    public String drain() {
+        String chunk = decodedOutput.toString();
+        decodedOutput.setLength(0);
+        return chunk;
+    }
+
     // Used to access the final tree after decoding — helpful for visualization
-    public HuffmanTree getTree() {
+    public AdaptiveTree getTree() {
         return tree;
     }
+
+    // Bits still waiting for the rest of their code.
+    public String getPendingBits() {
+        return pendingBits;
+    }
+
+    // Saves the adaptive state and any pending bits; see Encoder.checkpoint.
+    // Symbols already returned by decode() are not part of the checkpoint.
+    public void checkpoint(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            tree.writeState(out);
+            out.writeUTF(pendingBits);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Decoder resume(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Decoder decoder = new Decoder(HuffmanTree.readState(in));
+            decoder.pendingBits = in.readUTF();
+            return decoder;
+        }
+    }
 }
\ No newline at end of file
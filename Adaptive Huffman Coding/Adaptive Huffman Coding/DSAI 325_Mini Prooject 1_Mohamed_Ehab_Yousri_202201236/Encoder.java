@@ -1,5 +1,8 @@
+import java.io.*;
+import java.nio.file.*;
+
 public class Encoder {
-    private HuffmanTree tree;
+    private AdaptiveTree tree;
     private StringBuilder encodedStream;
 
     // While HuffmanTree.java contains the core logic of how characters are
@@ -11,6 +14,13 @@ public class Encoder {
         encodedStream = new StringBuilder();
     }
 
+    // Continues with an existing tree, e.g. one restored from a checkpoint, or
+    // runs on another tree storage such as OffHeapHuffmanTree.
+    public Encoder(AdaptiveTree tree) {
+        this.tree = tree;
+        encodedStream = new StringBuilder();
+    }
+
     // Uses tree.encode(c) to: --> Get the binary code for character c.
     public String encode(String input) {
         for (char c : input.toCharArray()) {
@@ -21,17 +31,52 @@ public class Encoder {
         // Returns the full encoded binary string at the end.
         return encodedStream.toString();
     }
+
     // This is what’s used in AdaptiveHuffmanTest.java to encode test inputs like
     // "ABABAB".
 
+    // Packed version of encode(): the bits go into out as real bits, and nothing
+    // is added to encodedStream.
+    public void encode(String input, BitWriter out) {
+        for (int k = 0; k < input.length(); k++)
+            tree.encode(input.charAt(k), out);
+    }
+
     // Provides access to the final binary output if needed from another class.
     public String getEncodedStream() {
         return encodedStream.toString();
     }
 
+    // Returns the bits produced since the last drain and clears them, so a
+    // long-lived stream can hand out its output chunk by chunk.
+    public String drain() {
+        String chunk = encodedStream.toString();
+        encodedStream.setLength(0);
+        return chunk;
+    }
+
     // Returns the current internal state of the Huffman tree,Useful for Visualizing
     // the tree
-    public HuffmanTree getTree() {
+    public AdaptiveTree getTree() {
         return tree;
     }
+
+    // Saves the adaptive state so the stream can be continued by resume(), in this
+    // process after a restart or on another worker reading the same file.
+    // Bits already returned by encode() are not part of the checkpoint.
+    // The file is written next to the target and moved into place, so a reader
+    // never sees a half-written checkpoint.
+    public void checkpoint(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            tree.writeState(out);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Encoder resume(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return new Encoder(HuffmanTree.readState(in));
+        }
+    }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
+import java.io.*;
 import java.util.*;
 
-public class HuffmanTree {
+// The adaptive tree with Node objects, as used by the visualizer. The algorithm
+// itself is in AbstractHuffmanTree; this class only stores the nodes.
+public class HuffmanTree extends AbstractHuffmanTree {
     private Node root;
     private Node NYT;
     private Map<Character, Node> symbolMap;
@@ -8,163 +11,40 @@ public class HuffmanTree {
     // Node number begins at 512 and counts down.
     private int maxNodeNumber = 512;
     private Node lastUpdatedNode;
+    // Every node of the tree, indexed by its handle (see TreeNode).
+    private List<Node> nodes;
+
+    // The nodes this tree creates: a Node that also remembers its index in nodes,
+    // so turning a Node back into a handle needs no lookup.
+    private static final class TreeNode extends Node {
+        final int id;
+
+        TreeNode(char symbol, int count, int number, boolean isNYT, int id) {
+            super(symbol, count, number, isNYT);
+            this.id = id;
+        }
+    }
 
     public HuffmanTree() {
-        // Starts with a single NYT node (root = NYT).
-        NYT = new Node('\0', 0, maxNodeNumber--, true);
-        root = NYT;
         // Maps initialized to track symbols and node numbers.
         symbolMap = new HashMap<>();
         numberMap = new HashMap<>();
-        numberMap.put(NYT.number, NYT);
-        lastUpdatedNode = NYT;
-    }
-
-    public String encode(char symbol) {
-        StringBuilder encoded = new StringBuilder();
-        // Checks whether the symbol has been encountered before
-        if (!symbolMap.containsKey(symbol)) {
-            // The encoder first emits the code for the NYT node
-            encoded.append(getCode(NYT));
-            // transmit its ASCII binary value (8 bits).
-            encoded.append(toBinary(symbol));
-            // Inserts the new symbol into the tree
-            insert(symbol);
-            // GUI visualization: highlights the most recently added/updated node.
-            lastUpdatedNode = symbolMap.get(symbol);
-
-            // if symbol already exists in the tree.
-        } else {
-            // Retrieves the existing node for the symbol.
-            Node node = symbolMap.get(symbol);
-            // Gets the binary path
-            encoded.append(getCode(node));
-            // Rebalances the tree:
-            // Increments frequency of the symbol.
-            // Swaps it with higher-numbered nodes if needed
-            update(node);
-            lastUpdatedNode = node;
-        }
-
-        return encoded.toString();
-    }
-
-    // Creates a new NYT node, a leaf for the symbol, and a new internal parent
-    // node.
-    public void insert(char symbol) {
-        Node newNYT = new Node('\0', 0, maxNodeNumber--, true);
-        Node symbolNode = new Node(symbol, 1, maxNodeNumber--, false);
-        Node internal = new Node('\0', 1, maxNodeNumber--, false);
-
-        // Links the nodes
-        internal.left = newNYT;
-        internal.right = symbolNode;
-        newNYT.parent = internal;
-        symbolNode.parent = internal;
-
-        // Insert into Main Tree
-        // the first time a symbol is inserted
-        // Checks whether the current NYT node is the root of the tree
-        if (NYT.parent == null) {
-            // The internal node becomes the new root of the tree.
-            root = internal;
-
-            // Runs when the NYT node is not the root
-        } else {
-            // Finds which side (left/right) the old NYT node was on in its parent.
-
-            if (NYT.parent.left == NYT)
-                // Replaces the NYT node with the new internal node
-                NYT.parent.left = internal;
-            else
-                NYT.parent.right = internal;
-            // assign the parent pointer to the new internal node.
-            internal.parent = NYT.parent;
-        }
-
-        NYT = newNYT;
-        symbolMap.put(symbol, symbolNode);
-        numberMap.put(symbolNode.number, symbolNode);
-        numberMap.put(newNYT.number, newNYT);
-        numberMap.put(internal.number, internal);
-
-        update(internal);
+        nodes = new ArrayList<>();
+        // Starts with a single NYT node (root = NYT).
+        reset();
     }
 
     public void update(Node node) {
-        while (node != null) {
-            // Finds the node with the highest number:
-            // Has the same count as the current node.
-            // Comes after it numerically (more recent in the tree structure).
-            Node highest = getHighestNodeWithSameCount(node);
-            if (highest != null && highest != node && highest != node.parent) {
-                swap(node, highest);
-            }
-            // After swapping (if needed), increment this node’s frequency count by 1.
-            node.count++;
-            // Move up the tree.
-            node = node.parent;
-        }
+        update(id(node));
     }
 
-    // Finds the deepest node (higher number) with same count — used in swaps.
-    private Node getHighestNodeWithSameCount(Node node) {
-        for (int i = 512; i > node.number; i--) {
-            Node candidate = numberMap.get(i);
-            if (candidate != null && candidate.count == node.count) {
-                return candidate;
-            }
-        }
-        return null;
-    }
-
-    private void swap(Node a, Node b) {
-        // These nodes must not be parent-child
-        if (a == b || a == b.parent || b == a.parent)
-            return;
-        // store the original parents of a and b for reconnection later
-        Node aParent = a.parent;
-        Node bParent = b.parent;
-        // Rewire a Parent to point to b instead of a.
-        if (aParent.left == a)
-            aParent.left = b;
-        else
-            aParent.right = b;
-        // Rewire bParent to point to a instead of b.
-        if (bParent.left == b)
-            bParent.left = a;
-        else
-            bParent.right = a;
-        // Update the parent pointers inside the nodes
-        a.parent = bParent;
-        b.parent = aParent;
-        // Swap their node numbers.
-        int temp = a.number;
-        a.number = b.number;
-        b.number = temp;
-        // Update the numberMap
-        numberMap.put(a.number, a);
-        numberMap.put(b.number, b);
-    }
-
-    // Builds the code by inserting bits in reverse traversal order.
-    public String getCode(Node node) {
-        StringBuilder code = new StringBuilder();
-        Node current = node;
-        // Traverse Until Root
-        while (current.parent != null) {
-            if (current.parent.left == current)
-                code.insert(0, '0');
-            else
-                code.insert(0, '1');
-            current = current.parent;
-        }
-        return code.toString();
+    // Length of the node's code: number of edges up to the root.
+    public int getDepth(Node node) {
+        return getDepth(id(node));
     }
 
-    // Converts a char to an 8-bit binary string (used when emitting new symbols).
-    public String toBinary(char c) {
-        return String.format("%8s", Integer.toBinaryString(c)).replace(' ', '0');
+    public String getCode(Node node) {
+        return getCode(id(node));
     }
 
     public void printTreeState(String currentStream) {
@@ -178,6 +58,12 @@ public class HuffmanTree {
         System.out.println("--------------------------------------------------");
     }
 
+    public static HuffmanTree readState(DataInputStream in) throws IOException {
+        HuffmanTree tree = new HuffmanTree();
+        tree.loadState(in);
+        return tree;
+    }
+
     public Node getRoot() {
         return this.root;
     }
@@ -193,4 +79,151 @@ public class HuffmanTree {
     public Map<Character, Node> getSymbolMap() {
         return symbolMap;
     }
+
+    // Node storage for AbstractHuffmanTree.
+    @Override
+    protected int newNode(char symbol, int count, int number, boolean isNYT) {
+        TreeNode node = new TreeNode(symbol, count, number, isNYT, nodes.size());
+        nodes.add(node);
+        numberMap.put(number, node);
+        return node.id;
+    }
+
+    @Override
+    protected void clearNodes() {
+        nodes.clear();
+        symbolMap.clear();
+        numberMap.clear();
+        root = null;
+        NYT = null;
+        lastUpdatedNode = null;
+    }
+
+    private Node node(int id) {
+        return id == NONE ? null : nodes.get(id);
+    }
+
+    private static int id(Node node) {
+        return node == null ? NONE : ((TreeNode) node).id;
+    }
+
+    @Override
+    protected int count(int node) {
+        return nodes.get(node).count;
+    }
+
+    @Override
+    protected void setCount(int node, int count) {
+        nodes.get(node).count = count;
+    }
+
+    @Override
+    protected int number(int node) {
+        return nodes.get(node).number;
+    }
+
+    @Override
+    protected void setNumber(int node, int number) {
+        nodes.get(node).number = number;
+    }
+
+    @Override
+    protected int left(int node) {
+        return id(nodes.get(node).left);
+    }
+
+    @Override
+    protected void setLeft(int node, int child) {
+        nodes.get(node).left = node(child);
+    }
+
+    @Override
+    protected int right(int node) {
+        return id(nodes.get(node).right);
+    }
+
+    @Override
+    protected void setRight(int node, int child) {
+        nodes.get(node).right = node(child);
+    }
+
+    @Override
+    protected int parent(int node) {
+        return id(nodes.get(node).parent);
+    }
+
+    @Override
+    protected void setParent(int node, int parent) {
+        nodes.get(node).parent = node(parent);
+    }
+
+    @Override
+    protected char symbol(int node) {
+        return nodes.get(node).symbol;
+    }
+
+    @Override
+    protected boolean isNYT(int node) {
+        return nodes.get(node).isNYT;
+    }
+
+    @Override
+    protected int rootNode() {
+        return id(root);
+    }
+
+    @Override
+    protected void setRootNode(int node) {
+        root = node(node);
+    }
+
+    @Override
+    protected int nytNode() {
+        return id(NYT);
+    }
+
+    @Override
+    protected void setNytNode(int node) {
+        NYT = node(node);
+    }
+
+    @Override
+    protected int lastUpdated() {
+        return id(lastUpdatedNode);
+    }
+
+    @Override
+    protected void setLastUpdated(int node) {
+        lastUpdatedNode = node(node);
+    }
+
+    @Override
+    protected int nextNumber() {
+        return maxNodeNumber;
+    }
+
+    @Override
+    protected void setNextNumber(int number) {
+        maxNodeNumber = number;
+    }
+
+    @Override
+    protected int nodeWithNumber(int number) {
+        return id(numberMap.get(number));
+    }
+
+    @Override
+    protected void putNumber(int number, int node) {
+        numberMap.put(number, node(node));
+    }
+
+    @Override
+    protected int symbolNode(char symbol) {
+        return id(symbolMap.get(symbol));
+    }
+
+    @Override
+    protected void putSymbol(char symbol, int node) {
+        symbolMap.put(symbol, node(node));
+    }
 }
\ No newline at end of file
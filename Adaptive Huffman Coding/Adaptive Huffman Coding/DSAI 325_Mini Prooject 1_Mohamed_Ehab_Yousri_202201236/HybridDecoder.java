@@ -0,0 +1,33 @@
+// Decodes the block stream written by HybridEncoder, dispatching every block to
+// the adaptive Decoder or to the static CanonicalHuffman table decoder.
+public class HybridDecoder {
+    private StringBuilder decodedOutput;
+
+    public HybridDecoder() {
+        decodedOutput = new StringBuilder();
+    }
+
+    public String decode(String bitstream) {
+        int i = 0;
+        while (i + 33 <= bitstream.length()) {
+            char mode = bitstream.charAt(i);
+            int payloadLength = Integer.parseInt(bitstream.substring(i + 1, i + 33), 2);
+            i += 33;
+            int end = i + payloadLength;
+            if (end > bitstream.length())
+                throw new IllegalArgumentException("Truncated block at bit " + (i - 33));
+
+            if (mode == HybridEncoder.ADAPTIVE) {
+                // Adaptive blocks start from a fresh tree, exactly like the encoder.
+                decodedOutput.append(new Decoder().decode(bitstream.substring(i, end)));
+            } else {
+                CanonicalHuffman codec = CanonicalHuffman.readHeader(bitstream, i);
+                int j = i + codec.getHeaderBits();
+                while (j < end)
+                    j = codec.decode(bitstream, j, decodedOutput);
+            }
+            i = end;
+        }
+        return decodedOutput.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+// Block encoder that picks, per block, between the adaptive HuffmanTree and the
+// static CanonicalHuffman codec.
+// Each block is written as:
+//   1 bit  mode ('0' = adaptive, '1' = static)
+//   32 bits payload length in bits
+//   payload (adaptive: Encoder output, static: code table header + codes)
+// Every block starts from a fresh model, so blocks can be decoded independently.
+public class HybridEncoder {
+    public static final char ADAPTIVE = '0';
+    public static final char STATIC = '1';
+    public static final int DEFAULT_BLOCK_SIZE = 65536;
+    // Below this size the static header costs more than it saves, so always go adaptive.
+    public static final int MIN_STATIC_BLOCK = 1024;
+    // CanonicalHuffman keeps codes in ints, so refuse degenerate code tables.
+    private static final int MAX_STATIC_CODE_LENGTH = 30;
+
+    private int blockSize;
+    private StringBuilder encodedStream;
+    private int adaptiveBlocks;
+    private int staticBlocks;
+
+    public HybridEncoder() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    public HybridEncoder(int blockSize) {
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        this.blockSize = blockSize;
+        encodedStream = new StringBuilder();
+    }
+
+    public String encode(String input) {
+        for (int start = 0; start < input.length(); start += blockSize) {
+            String block = input.substring(start, Math.min(input.length(), start + blockSize));
+            encodeBlock(block);
+        }
+        return encodedStream.toString();
+    }
+
+    private void encodeBlock(String block) {
+        // First pass: symbol frequencies of the whole block.
+        int[] freq = new int[CanonicalHuffman.ALPHABET_SIZE];
+        for (int k = 0; k < block.length(); k++) {
+            char c = block.charAt(k);
+            AbstractHuffmanTree.checkSymbol(c);
+            freq[c]++;
+        }
+
+        CanonicalHuffman codec = null;
+        if (block.length() >= MIN_STATIC_BLOCK) {
+            codec = CanonicalHuffman.fromFrequencies(freq);
+            if (codec.getMaxLength() > MAX_STATIC_CODE_LENGTH
+                    || codec.cost(freq) >= adaptiveCost(block))
+                codec = null;
+        }
+
+        StringBuilder payload = new StringBuilder();
+        if (codec == null) {
+            payload.append(new Encoder().encode(block));
+            encodedStream.append(ADAPTIVE);
+            adaptiveBlocks++;
+        } else {
+            codec.writeHeader(payload);
+            for (int k = 0; k < block.length(); k++)
+                payload.append(codec.encode(block.charAt(k)));
+            encodedStream.append(STATIC);
+            staticBlocks++;
+        }
+        encodedStream.append(CanonicalHuffman.toBits(payload.length(), 32));
+        encodedStream.append(payload);
+    }
+
+    // Exact size of the adaptive payload: the tree is run over the whole block, like
+    // the frequency pass of the static side, but only code lengths are counted.
+    // A sample would miss drift inside the block, and scaling it up would also
+    // multiply the one-time NYT escapes and 8-bit literals.
+    private long adaptiveCost(String block) {
+        HuffmanTree tree = new HuffmanTree();
+        long bits = 0;
+        for (int k = 0; k < block.length(); k++)
+            bits += tree.encodeLength(block.charAt(k));
+        return bits;
+    }
+
+    public String getEncodedStream() {
+        return encodedStream.toString();
+    }
+
+    // How many blocks went to each engine, useful when tuning the block size.
+    public int getAdaptiveBlocks() {
+        return adaptiveBlocks;
+    }
+
+    public int getStaticBlocks() {
+        return staticBlocks;
+    }
+}
\ No newline at end of file
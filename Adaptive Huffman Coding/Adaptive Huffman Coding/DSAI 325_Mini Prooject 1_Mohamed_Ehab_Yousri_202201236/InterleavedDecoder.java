@@ -0,0 +1,37 @@
+// Decodes the output of InterleavedEncoder. Every stream has its own tree and
+// reader, and the walks are interleaved symbol by symbol in the same round-robin
+// order the encoder used, so consecutive walks do not depend on each other.
+public class InterleavedDecoder {
+    private HuffmanTree[] trees;
+
+    public String decode(String bitstream) {
+        int n = Integer.parseInt(bitstream.substring(0, 8), 2);
+        if (n == 0)
+            throw new IllegalArgumentException("Interleaved stream without streams");
+        int i = 8 + 32 * n;
+        BitReader[] readers = new BitReader[n];
+        trees = new HuffmanTree[n];
+        for (int s = 0; s < n; s++) {
+            int length = Integer.parseInt(bitstream.substring(8 + 32 * s, 8 + 32 * (s + 1)), 2);
+            if (i + length > bitstream.length())
+                throw new IllegalArgumentException("Truncated stream " + s);
+            BitWriter packed = new BitWriter();
+            packed.writeCode(bitstream.substring(i, i + length));
+            readers[s] = new BitReader(packed.toByteArray(), packed.getBitLength());
+            trees[s] = new HuffmanTree();
+            i += length;
+        }
+
+        // Symbol k comes from stream k % n; the first stream that runs out ends the input.
+        StringBuilder out = new StringBuilder();
+        for (int s = 0; readers[s].hasMore(); s = (s + 1) % n) {
+            if (!trees[s].decode(readers[s], out))
+                throw new IllegalArgumentException("Truncated stream " + s);
+        }
+        return out.toString();
+    }
+
+    public HuffmanTree getTree(int stream) {
+        return trees[stream];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+// Splits the input round-robin over N independent adaptive trees.
+// Symbol k goes to tree k % N, so consecutive symbols no longer wait on each
+// other's update() and the tree walks of different streams can overlap.
+// Codes go straight into one BitWriter per stream, so the loop does not allocate
+// a String per symbol.
+// Output format:
+//   8 bits       number of streams N
+//   N x 32 bits  length in bits of every stream
+//   the N bit streams one after another
+public class InterleavedEncoder {
+    public static final int DEFAULT_STREAMS = 4;
+
+    private HuffmanTree[] trees;
+    private BitWriter[] streams;
+    // Symbols encoded so far; the next one goes to stream symbolCount % N, also
+    // across several encode() calls.
+    private long symbolCount;
+
+    public InterleavedEncoder() {
+        this(DEFAULT_STREAMS);
+    }
+
+    public InterleavedEncoder(int streamCount) {
+        if (streamCount < 1 || streamCount > 255)
+            throw new IllegalArgumentException("Stream count must be between 1 and 255: " + streamCount);
+        trees = new HuffmanTree[streamCount];
+        streams = new BitWriter[streamCount];
+        for (int s = 0; s < streamCount; s++) {
+            trees[s] = new HuffmanTree();
+            streams[s] = new BitWriter();
+        }
+    }
+
+    public String encode(String input) {
+        int n = trees.length;
+        int k = 0;
+        // Finish the round left open by the previous call.
+        for (int s = (int) (symbolCount % n); s != 0 && s < n && k < input.length(); s++, k++)
+            trees[s].encode(input.charAt(k), streams[s]);
+        // Full rounds: one symbol for every stream per iteration.
+        for (; k + n <= input.length(); k += n) {
+            for (int s = 0; s < n; s++)
+                trees[s].encode(input.charAt(k + s), streams[s]);
+        }
+        for (int s = 0; k < input.length(); k++, s++)
+            trees[s].encode(input.charAt(k), streams[s]);
+        symbolCount += input.length();
+        return getEncodedStream();
+    }
+
+    // Combines the separate bit buffers behind the header.
+    public String getEncodedStream() {
+        StringBuilder out = new StringBuilder();
+        out.append(CanonicalHuffman.toBits(trees.length, 8));
+        for (BitWriter stream : streams)
+            out.append(CanonicalHuffman.toBits(stream.getBitLength(), 32));
+        for (BitWriter stream : streams)
+            out.append(stream);
+        return out.toString();
+    }
+
+    public HuffmanTree getTree(int stream) {
+        return trees[stream];
+    }
+}
\ No newline at end of file
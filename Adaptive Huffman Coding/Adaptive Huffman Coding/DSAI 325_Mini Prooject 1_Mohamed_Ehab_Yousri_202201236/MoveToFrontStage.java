@@ -0,0 +1,46 @@
+// Move-to-front coding: every symbol is replaced by its position in a recency
+// list and then moved to the front. After a BWT the output is dominated by small
+// values (mostly 0), which is the skewed distribution the adaptive tree likes.
+public class MoveToFrontStage implements TransformStage {
+
+    @Override
+    public String forward(String block) {
+        char[] list = initialList();
+        StringBuilder out = new StringBuilder(block.length());
+        for (int k = 0; k < block.length(); k++) {
+            char c = block.charAt(k);
+            int pos = 0;
+            while (list[pos] != c)
+                pos++;
+            moveToFront(list, pos);
+            out.append((char) pos);
+        }
+        return out.toString();
+    }
+
+    @Override
+    public String inverse(String block) {
+        char[] list = initialList();
+        StringBuilder out = new StringBuilder(block.length());
+        for (int k = 0; k < block.length(); k++) {
+            int pos = block.charAt(k);
+            char c = list[pos];
+            moveToFront(list, pos);
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    private static char[] initialList() {
+        char[] list = new char[CanonicalHuffman.ALPHABET_SIZE];
+        for (int c = 0; c < list.length; c++)
+            list[c] = (char) c;
+        return list;
+    }
+
+    private static void moveToFront(char[] list, int pos) {
+        char c = list[pos];
+        System.arraycopy(list, 0, list, 1, pos);
+        list[0] = c;
+    }
+}
\ No newline at end of file
@@ -3,6 +3,8 @@
 
 public class Node implements Comparable<Node> {
     public char symbol;
+    // Set instead of symbol when the node belongs to a TokenHuffmanTree.
+    public String token;
     public int count;
     public int number;
     public Node left, right, parent;
@@ -20,6 +22,12 @@ public class Node implements Comparable<Node> {
         this.parent = null;
     }
 
+    // Builds a node for a whole token (word or n-byte group) instead of a single char.
+    public Node(String token, int count, int number, boolean isNYT) {
+        this('\0', count, number, isNYT);
+        this.token = token;
+    }
+
     // This helps the decoder and visualizer decide whether to decode, insert, or
     // display a symbol.
     public boolean isLeaf() {
@@ -37,6 +45,8 @@ public class Node implements Comparable<Node> {
     public String toString() {
         if (isNYT)
             return "[NYT] Count: " + count + ", Number: " + number;
+        if (token != null)
+            return "[Token: " + token + "] Count: " + count + ", Number: " + number;
         return "[Symbol: " + symbol + "] Count: " + count + ", Number: " + number;
     }
 }
\ No newline at end of file
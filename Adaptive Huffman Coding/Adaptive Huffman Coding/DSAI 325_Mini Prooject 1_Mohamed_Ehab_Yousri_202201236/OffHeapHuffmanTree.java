@@ -0,0 +1,327 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Same adaptive tree as HuffmanTree (the algorithm is shared through
+// AbstractHuffmanTree, so the output bits are identical), but every node lives in
+// one fixed-size off-heap slab instead of Node objects and HashMaps.
+// The heap does not grow with the number of live trees, and saving a tree is one
+// write of its slab. Slabs come from a SlabPool; close() hands the slab back, and
+// the next tree reuses it. A closed tree cannot be used.
+// The slab is sized for an alphabet of symbols 0 .. maxSymbols - 1. The coded
+// stream sends a new symbol as 8 bits, so the alphabet is at most 256 symbols;
+// a smaller one (e.g. 16 for nibbles) makes every slab smaller.
+public class OffHeapHuffmanTree extends AbstractHuffmanTree implements AutoCloseable {
+    public static final int MAX_SYMBOLS = 256;
+
+    // Header fields (int offsets).
+    private static final int ROOT = 0;
+    private static final int NYT = 4;
+    private static final int MAX_NODE_NUMBER = 8;
+    private static final int SLOT_COUNT = 12;
+    private static final int LAST_UPDATED = 16;
+    private static final int ALPHABET = 20;
+    private static final int HEADER_BYTES = 32;
+    // symbol -> slot + 1 (0 = not seen yet), replaces symbolMap.
+    private static final int SYMBOL_TABLE = HEADER_BYTES;
+
+    // Node fields (int offsets inside a slot). Links are slot indexes, -1 = none.
+    private static final int SYMBOL = 0;
+    private static final int COUNT = 4;
+    private static final int NUMBER = 8;
+    private static final int LEFT = 12;
+    private static final int RIGHT = 16;
+    private static final int PARENT = 20;
+    private static final int IS_NYT = 24;
+    private static final int NODE_BYTES = 28;
+
+    // Slab size for the full 8-bit alphabet.
+    public static final int STORAGE_BYTES = storageBytes(MAX_SYMBOLS);
+
+    // Used when no pool is given: 64 trees per chunk (about 1.6 MB).
+    private static final SlabPool SHARED_POOL = new SlabPool(STORAGE_BYTES, 64);
+
+    private final SlabPool pool;
+    private ByteBuffer memory;
+    // Layout of this tree's slab; see storageBytes.
+    private final int maxSymbols;
+    private final int maxSlots;
+    private final int lowestNumber;
+    private final int numberTable;
+    private final int nodes;
+
+    public OffHeapHuffmanTree() {
+        this(SHARED_POOL);
+    }
+
+    public OffHeapHuffmanTree(SlabPool pool) {
+        this(pool, MAX_SYMBOLS);
+    }
+
+    // A tree for symbols 0 .. maxSymbols - 1; the pool's slabs must be
+    // storageBytes(maxSymbols) bytes.
+    public OffHeapHuffmanTree(SlabPool pool, int maxSymbols) {
+        this(checkPool(pool, maxSymbols), pool.acquire(), maxSymbols);
+        reset();
+    }
+
+    private OffHeapHuffmanTree(SlabPool pool, ByteBuffer memory, int maxSymbols) {
+        this.pool = pool;
+        this.memory = memory;
+        this.maxSymbols = maxSymbols;
+        // 1 root NYT + 3 nodes per symbol.
+        maxSlots = 1 + 3 * maxSymbols;
+        lowestNumber = TOP_NUMBER - maxSlots + 1;
+        // number - lowestNumber -> slot + 1, replaces numberMap.
+        numberTable = SYMBOL_TABLE + 4 * maxSymbols;
+        nodes = numberTable + 4 * maxSlots;
+    }
+
+    // Bytes of one slab for an alphabet of maxSymbols symbols.
+    public static int storageBytes(int maxSymbols) {
+        if (maxSymbols <= 0 || maxSymbols > MAX_SYMBOLS)
+            throw new IllegalArgumentException("Alphabet must have 1 to " + MAX_SYMBOLS + " symbols");
+        int slots = 1 + 3 * maxSymbols;
+        return HEADER_BYTES + 4 * maxSymbols + 4 * slots + NODE_BYTES * slots;
+    }
+
+    // Every encode and insert looks the symbol up first, so this guards the tables
+    // for alphabets smaller than the 8-bit one AbstractHuffmanTree already checks.
+    private void checkAlphabet(char symbol) {
+        if (symbol >= maxSymbols)
+            throw new IllegalArgumentException("Symbol outside the " + maxSymbols + "-symbol alphabet: " + (int) symbol);
+    }
+
+    private static SlabPool checkPool(SlabPool pool, int maxSymbols) {
+        int bytes = storageBytes(maxSymbols);
+        if (pool.getSlabBytes() != bytes)
+            throw new IllegalArgumentException("Pool slabs must be " + bytes + " bytes");
+        return pool;
+    }
+
+    public int getMaxSymbols() {
+        return maxSymbols;
+    }
+
+    // Writes the whole storage block to a file in one go.
+    public void writeTo(Path file) throws IOException {
+        ByteBuffer view = storage().duplicate();
+        view.clear();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (view.hasRemaining())
+                channel.write(view);
+        }
+    }
+
+    // Reads a block written by writeTo straight into a slab of the shared pool.
+    public static OffHeapHuffmanTree readFrom(Path file) throws IOException {
+        return readFrom(file, SHARED_POOL);
+    }
+
+    // The alphabet is taken from the image; its size must match the pool's slabs.
+    public static OffHeapHuffmanTree readFrom(Path file, SlabPool pool) throws IOException {
+        ByteBuffer memory = pool.acquire();
+        ByteBuffer view = memory.duplicate();
+        view.clear();
+        int maxSymbols;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != pool.getSlabBytes())
+                throw new IOException("Not an off-heap tree image: " + file);
+            while (view.hasRemaining()) {
+                if (channel.read(view) < 0)
+                    throw new IOException("Unexpected end of file: " + file);
+            }
+            maxSymbols = memory.getInt(ALPHABET);
+            if (maxSymbols <= 0 || maxSymbols > MAX_SYMBOLS || storageBytes(maxSymbols) != pool.getSlabBytes())
+                throw new IOException("Not an off-heap tree image: " + file);
+        } catch (IOException e) {
+            pool.release(memory);
+            throw e;
+        }
+        return new OffHeapHuffmanTree(pool, memory, maxSymbols);
+    }
+
+    // Hands the slab back to the pool; calling it again does nothing.
+    @Override
+    public void close() {
+        if (memory != null) {
+            pool.release(memory);
+            memory = null;
+        }
+    }
+
+    public boolean isClosed() {
+        return memory == null;
+    }
+
+    // Node storage for AbstractHuffmanTree.
+    @Override
+    protected int newNode(char symbol, int count, int number, boolean isNYT) {
+        ByteBuffer memory = storage();
+        int slot = memory.getInt(SLOT_COUNT);
+        if (slot >= maxSlots)
+            throw new IllegalStateException("Off-heap tree is full");
+        memory.putInt(SLOT_COUNT, slot + 1);
+        set(slot, SYMBOL, symbol);
+        set(slot, COUNT, count);
+        set(slot, NUMBER, number);
+        set(slot, LEFT, NONE);
+        set(slot, RIGHT, NONE);
+        set(slot, PARENT, NONE);
+        set(slot, IS_NYT, isNYT ? 1 : 0);
+        putNumber(number, slot);
+        return slot;
+    }
+
+    // A reused slab still holds the previous tree, so the tables are zeroed here.
+    @Override
+    protected void clearNodes() {
+        ByteBuffer memory = storage();
+        for (int offset = 0; offset < nodes; offset += 4)
+            memory.putInt(offset, 0);
+        memory.putInt(ALPHABET, maxSymbols);
+    }
+
+    @Override
+    protected int count(int node) {
+        return get(node, COUNT);
+    }
+
+    @Override
+    protected void setCount(int node, int count) {
+        set(node, COUNT, count);
+    }
+
+    @Override
+    protected int number(int node) {
+        return get(node, NUMBER);
+    }
+
+    @Override
+    protected void setNumber(int node, int number) {
+        set(node, NUMBER, number);
+    }
+
+    @Override
+    protected int left(int node) {
+        return get(node, LEFT);
+    }
+
+    @Override
+    protected void setLeft(int node, int child) {
+        set(node, LEFT, child);
+    }
+
+    @Override
+    protected int right(int node) {
+        return get(node, RIGHT);
+    }
+
+    @Override
+    protected void setRight(int node, int child) {
+        set(node, RIGHT, child);
+    }
+
+    @Override
+    protected int parent(int node) {
+        return get(node, PARENT);
+    }
+
+    @Override
+    protected void setParent(int node, int parent) {
+        set(node, PARENT, parent);
+    }
+
+    @Override
+    protected char symbol(int node) {
+        return (char) get(node, SYMBOL);
+    }
+
+    @Override
+    protected boolean isNYT(int node) {
+        return get(node, IS_NYT) != 0;
+    }
+
+    @Override
+    protected int rootNode() {
+        return storage().getInt(ROOT);
+    }
+
+    @Override
+    protected void setRootNode(int node) {
+        storage().putInt(ROOT, node);
+    }
+
+    @Override
+    protected int nytNode() {
+        return storage().getInt(NYT);
+    }
+
+    @Override
+    protected void setNytNode(int node) {
+        storage().putInt(NYT, node);
+    }
+
+    @Override
+    protected int lastUpdated() {
+        return storage().getInt(LAST_UPDATED);
+    }
+
+    @Override
+    protected void setLastUpdated(int node) {
+        storage().putInt(LAST_UPDATED, node);
+    }
+
+    @Override
+    protected int nextNumber() {
+        return storage().getInt(MAX_NODE_NUMBER);
+    }
+
+    @Override
+    protected void setNextNumber(int number) {
+        storage().putInt(MAX_NODE_NUMBER, number);
+    }
+
+    @Override
+    protected int nodeWithNumber(int number) {
+        if (number < lowestNumber || number > TOP_NUMBER)
+            return NONE;
+        return storage().getInt(numberTable + 4 * (number - lowestNumber)) - 1;
+    }
+
+    @Override
+    protected void putNumber(int number, int node) {
+        if (number < lowestNumber || number > TOP_NUMBER)
+            throw new IllegalStateException("Node number out of range: " + number);
+        storage().putInt(numberTable + 4 * (number - lowestNumber), node + 1);
+    }
+
+    @Override
+    protected int symbolNode(char symbol) {
+        checkAlphabet(symbol);
+        return storage().getInt(SYMBOL_TABLE + 4 * symbol) - 1;
+    }
+
+    @Override
+    protected void putSymbol(char symbol, int node) {
+        checkAlphabet(symbol);
+        storage().putInt(SYMBOL_TABLE + 4 * symbol, node + 1);
+    }
+
+    private int get(int slot, int field) {
+        return storage().getInt(nodes + slot * NODE_BYTES + field);
+    }
+
+    private void set(int slot, int field, int value) {
+        storage().putInt(nodes + slot * NODE_BYTES + field, value);
+    }
+
+    private ByteBuffer storage() {
+        if (memory == null)
+            throw new IllegalStateException("Off-heap tree has been closed");
+        return memory;
+    }
+}
\ No newline at end of file
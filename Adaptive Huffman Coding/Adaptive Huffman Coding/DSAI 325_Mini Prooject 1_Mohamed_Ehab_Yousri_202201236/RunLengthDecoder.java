@@ -0,0 +1,50 @@
+// Reverses RunLengthEncoder: reads a symbol from the symbol tree, then its run
+// length from the length tree, and expands the run.
+public class RunLengthDecoder {
+    private HuffmanTree symbolTree;
+    private HuffmanTree lengthTree;
+    private StringBuilder decodedOutput;
+    // Current bit position in the stream being decoded.
+    private int i;
+    // Receives the symbol decoded by decodeSymbol.
+    private StringBuilder decodedSymbol = new StringBuilder(1);
+
+    public RunLengthDecoder() {
+        symbolTree = new HuffmanTree();
+        lengthTree = new HuffmanTree();
+        decodedOutput = new StringBuilder();
+    }
+
+    public String decode(String bitstream) {
+        i = 0;
+        while (i < bitstream.length()) {
+            int symbol = decodeSymbol(symbolTree, bitstream);
+            if (symbol < 0)
+                break;
+            int length = decodeSymbol(lengthTree, bitstream);
+            if (length < 0)
+                break;
+            for (int k = 0; k <= length; k++)
+                decodedOutput.append((char) symbol);
+        }
+        return decodedOutput.toString();
+    }
+
+    // Decodes one symbol with the tree's own walk; returns -1 if the stream ends early.
+    private int decodeSymbol(HuffmanTree tree, String bitstream) {
+        decodedSymbol.setLength(0);
+        int next = tree.decode(bitstream, i, decodedSymbol);
+        if (next < 0)
+            return -1;
+        i = next;
+        return decodedSymbol.charAt(0);
+    }
+
+    public HuffmanTree getSymbolTree() {
+        return symbolTree;
+    }
+
+    public HuffmanTree getLengthTree() {
+        return lengthTree;
+    }
+}
\ No newline at end of file
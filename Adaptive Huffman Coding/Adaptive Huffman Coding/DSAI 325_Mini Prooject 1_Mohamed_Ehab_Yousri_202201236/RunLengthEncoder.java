@@ -0,0 +1,45 @@
+// Optional stage in front of the adaptive tree for inputs with long runs.
+// The input is turned into (symbol, run length) tokens: the symbol goes through the
+// usual HuffmanTree and the length through a second, independent adaptive tree.
+// A run of n equal symbols therefore costs one code per tree and two update()
+// walks, instead of n codes and n update() walks.
+public class RunLengthEncoder {
+    // Run lengths are sent as 8-bit symbols (length - 1), longer runs are split.
+    public static final int MAX_RUN = 256;
+
+    private HuffmanTree symbolTree;
+    private HuffmanTree lengthTree;
+    private StringBuilder encodedStream;
+
+    public RunLengthEncoder() {
+        symbolTree = new HuffmanTree();
+        lengthTree = new HuffmanTree();
+        encodedStream = new StringBuilder();
+    }
+
+    public String encode(String input) {
+        int i = 0;
+        while (i < input.length()) {
+            char symbol = input.charAt(i);
+            int run = 1;
+            while (i + run < input.length() && run < MAX_RUN && input.charAt(i + run) == symbol)
+                run++;
+            encodedStream.append(symbolTree.encode(symbol));
+            encodedStream.append(lengthTree.encode((char) (run - 1)));
+            i += run;
+        }
+        return encodedStream.toString();
+    }
+
+    public String getEncodedStream() {
+        return encodedStream.toString();
+    }
+
+    public HuffmanTree getSymbolTree() {
+        return symbolTree;
+    }
+
+    public HuffmanTree getLengthTree() {
+        return lengthTree;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+// Hands out fixed-size slices ("slabs") of large direct buffers and takes them
+// back. A released slab is reused by the next acquire() right away, instead of
+// waiting for the garbage collector to free a direct buffer.
+// Memory is reserved one chunk of slabsPerChunk slabs at a time and kept for the
+// life of the pool, so the native footprint is bounded by the peak number of slabs
+// in use at the same time.
+public class SlabPool {
+    private final int slabBytes;
+    private final int slabsPerChunk;
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+    private int allocatedSlabs;
+
+    public SlabPool(int slabBytes, int slabsPerChunk) {
+        if (slabBytes <= 0 || slabsPerChunk <= 0)
+            throw new IllegalArgumentException("Slab size and chunk size must be positive");
+        if ((long) slabBytes * slabsPerChunk > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Chunk does not fit in one buffer");
+        this.slabBytes = slabBytes;
+        this.slabsPerChunk = slabsPerChunk;
+    }
+
+    // Returns a slab of slabBytes bytes. Its contents are whatever the previous
+    // owner left in it.
+    public synchronized ByteBuffer acquire() {
+        if (free.isEmpty())
+            grow();
+        return free.pop();
+    }
+
+    // Gives a slab back; the caller must not use it afterwards.
+    public synchronized void release(ByteBuffer slab) {
+        if (slab.capacity() != slabBytes)
+            throw new IllegalArgumentException("Not a slab of this pool");
+        free.push(slab);
+    }
+
+    private void grow() {
+        ByteBuffer chunk = ByteBuffer.allocateDirect(slabBytes * slabsPerChunk);
+        for (int k = 0; k < slabsPerChunk; k++) {
+            chunk.limit((k + 1) * slabBytes).position(k * slabBytes);
+            free.add(chunk.slice());
+        }
+        allocatedSlabs += slabsPerChunk;
+    }
+
+    public int getSlabBytes() {
+        return slabBytes;
+    }
+
+    public synchronized int getAllocatedSlabs() {
+        return allocatedSlabs;
+    }
+
+    public synchronized int getFreeSlabs() {
+        return free.size();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+// Seekable index written by SyncPointEncoder: for every sync point, the symbol
+// offset in the original input, the bit offset in the encoded stream, and the
+// serialized tree to start from (null when the tree was reset instead).
+public class SyncIndex {
+    public static class Entry {
+        public final long symbolOffset;
+        public final long bitOffset;
+        public final byte[] snapshot;
+
+        public Entry(long symbolOffset, long bitOffset, byte[] snapshot) {
+            this.symbolOffset = symbolOffset;
+            this.bitOffset = bitOffset;
+            this.snapshot = snapshot;
+        }
+    }
+
+    private List<Entry> entries = new ArrayList<>();
+    private long totalSymbols;
+    private long totalBits;
+
+    public void add(Entry entry) {
+        entries.add(entry);
+    }
+
+    // Index of the last sync point at or before the given symbol offset.
+    public int find(long symbolOffset) {
+        int lo = 0;
+        int hi = entries.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (entries.get(mid).symbolOffset <= symbolOffset)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return lo;
+    }
+
+    public Entry get(int k) {
+        return entries.get(k);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Bit offset where segment k ends (the next sync point, or the end of the stream).
+    public long endBit(int k) {
+        return k + 1 < entries.size() ? entries.get(k + 1).bitOffset : totalBits;
+    }
+
+    public void setTotals(long totalSymbols, long totalBits) {
+        this.totalSymbols = totalSymbols;
+        this.totalBits = totalBits;
+    }
+
+    public long getTotalSymbols() {
+        return totalSymbols;
+    }
+
+    public long getTotalBits() {
+        return totalBits;
+    }
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeLong(totalSymbols);
+            out.writeLong(totalBits);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeLong(entry.symbolOffset);
+                out.writeLong(entry.bitOffset);
+                out.writeInt(entry.snapshot == null ? -1 : entry.snapshot.length);
+                if (entry.snapshot != null)
+                    out.write(entry.snapshot);
+            }
+        }
+    }
+
+    public static SyncIndex load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            SyncIndex index = new SyncIndex();
+            index.totalSymbols = in.readLong();
+            index.totalBits = in.readLong();
+            int count = in.readInt();
+            for (int k = 0; k < count; k++) {
+                long symbolOffset = in.readLong();
+                long bitOffset = in.readLong();
+                int length = in.readInt();
+                byte[] snapshot = null;
+                if (length >= 0) {
+                    snapshot = new byte[length];
+                    in.readFully(snapshot);
+                }
+                index.add(new Entry(symbolOffset, bitOffset, snapshot));
+            }
+            return index;
+        }
+    }
+}
\ No newline at end of file
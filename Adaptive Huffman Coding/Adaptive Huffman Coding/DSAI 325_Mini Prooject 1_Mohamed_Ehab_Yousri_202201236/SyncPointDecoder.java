@@ -0,0 +1,49 @@
+import java.io.*;
+
+// Random-access decoding of a SyncPointEncoder stream: decoding starts at the last
+// sync point before the requested offset, so a lookup costs at most one interval
+// of symbols before the first wanted one instead of the whole prefix.
+public class SyncPointDecoder {
+
+    // Decodes `length` symbols starting at symbol offset `from`.
+    public String decodeRange(String bitstream, SyncIndex index, long from, int length) {
+        if (from < 0 || length < 0 || from + length > index.getTotalSymbols())
+            throw new IllegalArgumentException("Range outside of the stream: " + from + "+" + length);
+        StringBuilder out = new StringBuilder(length);
+        if (length == 0)
+            return "";
+        int k = index.find(from);
+        long skip = from - index.get(k).symbolOffset;
+        while (out.length() < length) {
+            String segment = decodeSegment(bitstream, index, k++);
+            int start = (int) Math.min(skip, segment.length());
+            out.append(segment, start, Math.min(segment.length(), start + length - out.length()));
+            skip = 0;
+        }
+        return out.toString();
+    }
+
+    // Decodes everything, one segment after another.
+    public String decode(String bitstream, SyncIndex index) {
+        StringBuilder out = new StringBuilder();
+        for (int k = 0; k < index.size(); k++)
+            out.append(decodeSegment(bitstream, index, k));
+        return out.toString();
+    }
+
+    private String decodeSegment(String bitstream, SyncIndex index, int k) {
+        SyncIndex.Entry entry = index.get(k);
+        HuffmanTree tree;
+        if (entry.snapshot == null) {
+            tree = new HuffmanTree();
+        } else {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry.snapshot))) {
+                tree = HuffmanTree.readState(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        String bits = bitstream.substring((int) entry.bitOffset, (int) index.endBit(k));
+        return new Decoder(tree).decode(bits);
+    }
+}
\ No newline at end of file
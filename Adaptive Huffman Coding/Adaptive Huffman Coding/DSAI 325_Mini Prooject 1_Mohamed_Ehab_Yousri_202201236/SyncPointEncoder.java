@@ -0,0 +1,60 @@
+import java.io.*;
+
+// Encoder that places a sync point every `interval` symbols so the stream can be
+// decoded starting from the middle (see SyncPointDecoder).
+// At a sync point the tree is either reset to an empty one, which costs some
+// ratio because the tree has to learn again, or kept and stored as a snapshot
+// in the index, which keeps the ratio at the price of a larger index.
+public class SyncPointEncoder {
+    private int interval;
+    private boolean snapshots;
+    private HuffmanTree tree;
+    private StringBuilder encodedStream;
+    private SyncIndex index;
+    private long symbolCount;
+
+    public SyncPointEncoder(int interval, boolean snapshots) {
+        if (interval <= 0)
+            throw new IllegalArgumentException("Sync interval must be positive: " + interval);
+        this.interval = interval;
+        this.snapshots = snapshots;
+        tree = new HuffmanTree();
+        encodedStream = new StringBuilder();
+        index = new SyncIndex();
+    }
+
+    public String encode(String input) {
+        for (char c : input.toCharArray()) {
+            if (symbolCount % interval == 0)
+                addSyncPoint();
+            encodedStream.append(tree.encode(c));
+            symbolCount++;
+        }
+        index.setTotals(symbolCount, encodedStream.length());
+        return encodedStream.toString();
+    }
+
+    private void addSyncPoint() {
+        byte[] snapshot = null;
+        if (snapshots) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                tree.writeState(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            snapshot = bytes.toByteArray();
+        } else {
+            tree = new HuffmanTree();
+        }
+        index.add(new SyncIndex.Entry(symbolCount, encodedStream.length(), snapshot));
+    }
+
+    public String getEncodedStream() {
+        return encodedStream.toString();
+    }
+
+    public SyncIndex getIndex() {
+        return index;
+    }
+}
\ No newline at end of file
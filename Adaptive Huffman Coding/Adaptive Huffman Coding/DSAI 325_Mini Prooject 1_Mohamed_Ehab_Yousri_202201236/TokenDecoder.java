@@ -0,0 +1,46 @@
+// Decodes a TokenEncoder stream by walking the token tree, the same way
+// Decoder walks the char tree.
+public class TokenDecoder {
+    private TokenHuffmanTree tree;
+    private StringBuilder decodedOutput;
+
+    public TokenDecoder() {
+        tree = new TokenHuffmanTree();
+        decodedOutput = new StringBuilder();
+    }
+
+    public String decode(String bitstream) {
+        int i = 0;
+        while (i < bitstream.length()) {
+            Node current = tree.getRoot();
+            while (!current.isLeaf()) {
+                if (i >= bitstream.length())
+                    return decodedOutput.toString();
+                current = (bitstream.charAt(i++) == '0') ? current.left : current.right;
+            }
+
+            if (current.isNYT) {
+                // New token: 8-bit length, then its chars.
+                if (i + 8 > bitstream.length())
+                    break;
+                int length = Integer.parseInt(bitstream.substring(i, i + 8), 2);
+                i += 8;
+                if (i + 8 * length > bitstream.length())
+                    break;
+                StringBuilder token = new StringBuilder(length);
+                for (int k = 0; k < length; k++, i += 8)
+                    token.append((char) Integer.parseInt(bitstream.substring(i, i + 8), 2));
+                tree.insert(token.toString());
+                decodedOutput.append(token);
+            } else {
+                tree.update(current);
+                decodedOutput.append(current.token);
+            }
+        }
+        return decodedOutput.toString();
+    }
+
+    public TokenHuffmanTree getTree() {
+        return tree;
+    }
+}
\ No newline at end of file
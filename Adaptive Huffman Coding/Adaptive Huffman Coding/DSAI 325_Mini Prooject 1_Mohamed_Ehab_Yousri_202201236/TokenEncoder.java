@@ -0,0 +1,40 @@
+import java.util.List;
+
+// Same role as Encoder, but the symbols are words or fixed-size char groups
+// coded with a TokenHuffmanTree. The decoder does not need to know the mode:
+// new tokens carry their own length.
+public class TokenEncoder {
+    private TokenHuffmanTree tree;
+    private StringBuilder encodedStream;
+    // 0 = word mode, otherwise the group size in chars.
+    private int groupSize;
+
+    // Word mode.
+    public TokenEncoder() {
+        this(0);
+    }
+
+    public TokenEncoder(int groupSize) {
+        tree = new TokenHuffmanTree();
+        encodedStream = new StringBuilder();
+        this.groupSize = groupSize;
+    }
+
+    public String encode(String input) {
+        // New tokens are sent char by char as 8-bit literals.
+        for (int k = 0; k < input.length(); k++)
+            AbstractHuffmanTree.checkSymbol(input.charAt(k));
+        List<String> tokens = groupSize == 0 ? Tokenizer.words(input) : Tokenizer.groups(input, groupSize);
+        for (String token : tokens)
+            encodedStream.append(tree.encode(token));
+        return encodedStream.toString();
+    }
+
+    public String getEncodedStream() {
+        return encodedStream.toString();
+    }
+
+    public TokenHuffmanTree getTree() {
+        return tree;
+    }
+}
\ No newline at end of file
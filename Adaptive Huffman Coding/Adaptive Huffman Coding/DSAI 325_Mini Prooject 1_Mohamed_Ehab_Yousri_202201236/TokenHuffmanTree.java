@@ -0,0 +1,160 @@
+import java.util.*;
+
+// Adaptive Huffman tree (FGK) whose symbols are whole tokens instead of chars.
+// HuffmanTree numbers its nodes from 512 downwards and scans that range for the
+// node to swap with, which is fine for 256 chars but not for millions of words.
+// Here the nodes are kept in an ArrayList ordered by rank (index 0 = root) and
+// Node.number holds that index. Nodes with the same count are contiguous, so the
+// swap target of a node is simply the first index of its count, kept in a map.
+public class TokenHuffmanTree {
+    // New tokens are sent after the NYT code as an 8-bit length plus 8 bits per char.
+    public static final int MAX_TOKEN_LENGTH = 255;
+
+    private Node root;
+    private Node NYT;
+    private Map<String, Node> symbolMap;
+    private List<Node> order;
+    // count -> index of the highest ranked node with that count
+    private Map<Integer, Integer> leaders;
+
+    public TokenHuffmanTree() {
+        NYT = new Node((String) null, 0, 0, true);
+        root = NYT;
+        symbolMap = new HashMap<>();
+        order = new ArrayList<>();
+        order.add(NYT);
+        leaders = new HashMap<>();
+        leaders.put(0, 0);
+    }
+
+    public String encode(String token) {
+        StringBuilder encoded = new StringBuilder();
+        Node node = symbolMap.get(token);
+        if (node == null) {
+            // Escape, then the token itself with a length prefix.
+            encoded.append(getCode(NYT));
+            encoded.append(CanonicalHuffman.toBits(token.length(), 8));
+            for (int k = 0; k < token.length(); k++)
+                encoded.append(CanonicalHuffman.toBits(token.charAt(k), 8));
+            insert(token);
+        } else {
+            encoded.append(getCode(node));
+            update(node);
+        }
+        return encoded.toString();
+    }
+
+    // The NYT node becomes an internal node with a new NYT and the token leaf as children.
+    public void insert(String token) {
+        if (token.isEmpty() || token.length() > MAX_TOKEN_LENGTH)
+            throw new IllegalArgumentException("Token length must be 1.." + MAX_TOKEN_LENGTH + ": " + token.length());
+        Node internal = NYT;
+        Node leaf = new Node(token, 0, order.size(), false);
+        order.add(leaf);
+        Node newNYT = new Node((String) null, 0, order.size(), true);
+        order.add(newNYT);
+
+        internal.isNYT = false;
+        internal.left = newNYT;
+        internal.right = leaf;
+        newNYT.parent = internal;
+        leaf.parent = internal;
+        NYT = newNYT;
+        symbolMap.put(token, leaf);
+
+        increment(internal, leaf);
+    }
+
+    public void update(Node leaf) {
+        Node parent = leaf.parent;
+        // A leaf next to the NYT node has the same count as its parent. If that parent
+        // leads the count block the leaf cannot be swapped with it, so the leaf takes
+        // the parent's rank instead and the parent drops into the leaf's block.
+        if (parent != null && parent.left == NYT && leaders.get(leaf.count) == parent.number) {
+            Node next = order.get(parent.number + 1);
+            if (next == leaf) {
+                // Leaf already right below its parent: bump the parent's path first.
+                increment(parent, leaf);
+                return;
+            }
+            swap(leaf, next);
+            swap(leaf, parent);
+        }
+        increment(leaf, null);
+    }
+
+    private void increment(Node node, Node leafToIncrement) {
+        while (node != null) {
+            incrementOne(node);
+            node = node.parent;
+        }
+        if (leafToIncrement != null)
+            incrementOne(leafToIncrement);
+    }
+
+    // Moves the node to the front of its count block, then bumps its count.
+    private void incrementOne(Node node) {
+        int count = node.count;
+        int leader = leaders.get(count);
+        if (leader != node.number)
+            swap(node, order.get(leader));
+        int index = node.number;
+        if (index + 1 < order.size() && order.get(index + 1).count == count)
+            leaders.put(count, index + 1);
+        else
+            leaders.remove(count);
+        node.count++;
+        if (index == 0 || order.get(index - 1).count != node.count)
+            leaders.put(node.count, index);
+    }
+
+    // Exchanges two subtrees that are not parent and child, and their ranks.
+    private void swap(Node a, Node b) {
+        Node aParent = a.parent;
+        Node bParent = b.parent;
+        if (aParent == bParent) {
+            Node left = aParent.left;
+            aParent.left = aParent.right;
+            aParent.right = left;
+        } else {
+            if (aParent.left == a)
+                aParent.left = b;
+            else
+                aParent.right = b;
+            if (bParent.left == b)
+                bParent.left = a;
+            else
+                bParent.right = a;
+            a.parent = bParent;
+            b.parent = aParent;
+        }
+        int temp = a.number;
+        a.number = b.number;
+        b.number = temp;
+        order.set(a.number, a);
+        order.set(b.number, b);
+    }
+
+    // Path from the root, collected bottom-up and reversed once.
+    public String getCode(Node node) {
+        StringBuilder code = new StringBuilder();
+        Node current = node;
+        while (current.parent != null) {
+            code.append(current.parent.left == current ? '0' : '1');
+            current = current.parent;
+        }
+        return code.reverse().toString();
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    public Node getNYT() {
+        return NYT;
+    }
+
+    public Map<String, Node> getSymbolMap() {
+        return symbolMap;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+import java.util.*;
+
+// Splits input into the tokens used by TokenEncoder.
+public class Tokenizer {
+    // Words: maximal runs of letters/digits; any other char is a token by itself.
+    public static List<String> words(String input) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < input.length()) {
+            int end = i + 1;
+            if (Character.isLetterOrDigit(input.charAt(i))) {
+                while (end < input.length() && end - i < TokenHuffmanTree.MAX_TOKEN_LENGTH
+                        && Character.isLetterOrDigit(input.charAt(end)))
+                    end++;
+            }
+            tokens.add(input.substring(i, end));
+            i = end;
+        }
+        return tokens;
+    }
+
+    // Fixed groups of n chars; the last group may be shorter.
+    public static List<String> groups(String input, int n) {
+        if (n < 1 || n > TokenHuffmanTree.MAX_TOKEN_LENGTH)
+            throw new IllegalArgumentException("Group size must be 1.." + TokenHuffmanTree.MAX_TOKEN_LENGTH + ": " + n);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < input.length(); i += n)
+            tokens.add(input.substring(i, Math.min(input.length(), i + n)));
+        return tokens;
+    }
+}
\ No newline at end of file
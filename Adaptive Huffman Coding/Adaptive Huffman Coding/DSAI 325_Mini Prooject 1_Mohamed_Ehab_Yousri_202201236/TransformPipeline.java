@@ -0,0 +1,206 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// Chains TransformStages in front of the adaptive coder, e.g. BWT -> MTF -> Huffman.
+// Every stage runs on its own thread and hands blocks to the next one through a
+// bounded queue, so a slow stage holds back the ones before it instead of letting
+// blocks pile up in memory. Encoder/Decoder are the final stage.
+//
+// Each transformed block is sent to the adaptive coder behind a 4-char length,
+// so the decoder can split the symbol stream back into blocks without knowing
+// what the stages did to their sizes.
+public class TransformPipeline {
+    public static final int DEFAULT_BLOCK_SIZE = 65536;
+    // Blocks in flight between two stages.
+    private static final int QUEUE_CAPACITY = 4;
+    // Marks the end of the block stream (compared by reference).
+    private static final String END = new String("END");
+    // Bits handed to the adaptive decoder at a time while splitting out blocks.
+    private static final int DECODE_CHUNK_BITS = 1 << 16;
+
+    private int blockSize;
+    private List<TransformStage> stages;
+
+    public TransformPipeline(int blockSize, TransformStage... stages) {
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        this.blockSize = blockSize;
+        this.stages = Arrays.asList(stages);
+    }
+
+    public static TransformPipeline bwtMtf() {
+        return bwtMtf(DEFAULT_BLOCK_SIZE);
+    }
+
+    // The usual setup for text: BWT groups similar contexts, MTF turns them into small numbers.
+    public static TransformPipeline bwtMtf(int blockSize) {
+        return new TransformPipeline(blockSize, new BurrowsWheelerStage(), new MoveToFrontStage());
+    }
+
+    public String encode(String input) {
+        // The stages run before the tree and also work on 8-bit symbols.
+        for (int k = 0; k < input.length(); k++)
+            AbstractHuffmanTree.checkSymbol(input.charAt(k));
+        List<String> blocks = new ArrayList<>();
+        for (int start = 0; start < input.length(); start += blockSize)
+            blocks.add(input.substring(start, Math.min(input.length(), start + blockSize)));
+
+        Encoder encoder = new Encoder();
+        run(blocks.iterator(), stages, true, block -> encoder.encode(lengthPrefix(block.length()) + block));
+        return encoder.getEncodedStream();
+    }
+
+    public String decode(String bitstream) {
+        List<TransformStage> backward = new ArrayList<>();
+        for (int k = stages.size() - 1; k >= 0; k--)
+            backward.add(stages.get(k));
+        StringBuilder out = new StringBuilder();
+        // The adaptive stage runs on the reader thread, so the inverse stages start on
+        // the first block while later ones are still being decoded.
+        run(decodedBlocks(bitstream), backward, false, out::append);
+        return out.toString();
+    }
+
+    // The adaptive stage has one tree for the whole stream. It is fed the bits chunk
+    // by chunk (Decoder keeps a code cut off at a chunk end), and every block is
+    // handed out as soon as its length prefix and all its symbols are decoded.
+    private static Iterator<String> decodedBlocks(String bitstream) {
+        Decoder decoder = new Decoder();
+        return new Iterator<String>() {
+            // Next bit to hand to the decoder.
+            private int position;
+            // Decoded symbols not yet split into a block.
+            private StringBuilder symbols = new StringBuilder();
+            private String next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null)
+                    next = advance();
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                String block = next;
+                next = null;
+                return block;
+            }
+
+            private String advance() {
+                while (true) {
+                    if (symbols.length() >= 4) {
+                        int length = 0;
+                        for (int k = 0; k < 4; k++)
+                            length = (length << 8) | symbols.charAt(k);
+                        if (symbols.length() >= 4 + length) {
+                            String block = symbols.substring(4, 4 + length);
+                            symbols.delete(0, 4 + length);
+                            return block;
+                        }
+                    }
+                    if (position >= bitstream.length()) {
+                        if (symbols.length() >= 4)
+                            throw new IllegalArgumentException("Truncated block in pipeline stream");
+                        return null;
+                    }
+                    int end = Math.min(bitstream.length(), position + DECODE_CHUNK_BITS);
+                    decoder.decode(bitstream.substring(position, end));
+                    symbols.append(decoder.drain());
+                    position = end;
+                }
+            }
+        };
+    }
+
+    // Feeds blocks through the given stages, one thread per stage, and hands the
+    // results to sink on the calling thread in their original order.
+    private void run(Iterator<String> blocks, List<TransformStage> chain, boolean forward,
+            Consumer<String> sink) {
+        List<BlockingQueue<String>> queues = new ArrayList<>();
+        for (int k = 0; k <= chain.size(); k++)
+            queues.add(new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        Thread reader = new Thread(() -> {
+            try {
+                try {
+                    while (failure.get() == null && blocks.hasNext())
+                        queues.get(0).put(blocks.next());
+                } catch (RuntimeException e) {
+                    // A bad stream fails like a stage; END still goes out below.
+                    failure.compareAndSet(null, e);
+                }
+                queues.get(0).put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "pipeline-reader");
+        threads.add(reader);
+
+        for (int k = 0; k < chain.size(); k++) {
+            TransformStage stage = chain.get(k);
+            BlockingQueue<String> in = queues.get(k);
+            BlockingQueue<String> out = queues.get(k + 1);
+            threads.add(new Thread(() -> {
+                try {
+                    String block;
+                    while ((block = in.take()) != END) {
+                        // After a failure keep draining so upstream threads never block.
+                        if (failure.get() != null)
+                            continue;
+                        try {
+                            out.put(forward ? stage.forward(block) : stage.inverse(block));
+                        } catch (RuntimeException e) {
+                            failure.compareAndSet(null, e);
+                        }
+                    }
+                    out.put(END);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "pipeline-" + stage.getClass().getSimpleName()));
+        }
+
+        for (Thread thread : threads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+        try {
+            BlockingQueue<String> last = queues.get(chain.size());
+            String block;
+            while ((block = last.take()) != END) {
+                if (failure.get() != null)
+                    continue;
+                // A failing sink is treated like a failing stage: keep draining so the
+                // stage threads can finish instead of blocking on put() forever.
+                try {
+                    sink.accept(block);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+            for (Thread thread : threads)
+                thread.join();
+        } catch (InterruptedException e) {
+            for (Thread thread : threads)
+                thread.interrupt();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running the pipeline", e);
+        }
+        if (failure.get() != null)
+            throw failure.get();
+    }
+
+    private static String lengthPrefix(int length) {
+        StringBuilder sb = new StringBuilder(4);
+        for (int shift = 24; shift >= 0; shift -= 8)
+            sb.append((char) ((length >>> shift) & 0xFF));
+        return sb.toString();
+    }
+}
\ No newline at end of file
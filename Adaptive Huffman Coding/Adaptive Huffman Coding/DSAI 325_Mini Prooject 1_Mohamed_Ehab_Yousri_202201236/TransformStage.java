@@ -0,0 +1,8 @@
+// One reversible preprocessing step that runs in front of the adaptive coder.
+// Stages work on one block at a time, so TransformPipeline can stream blocks
+// through them. Symbols stay 8-bit chars, which is what HuffmanTree expects.
+public interface TransformStage {
+    String forward(String block);
+
+    String inverse(String block);
+}
\ No newline at end of file